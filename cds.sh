@@ -0,0 +1,27 @@
+#!/bin/sh
+# Unpack the Spring Boot jar into app.jar and lib/ of the target directory, run the application once
+# in the cds-training profile to list the classes it loads on start and dump these classes
+# into the class-data-sharing archive app.jsa. Then start the application from the target directory with
+#   java -XX:SharedArchiveFile=app.jsa @classpath.args com.mastery.java.task.MainApp
+# The archive is only used with the very same jars, so it is built where it is used: in the image.
+# Usage: cds.sh <RestApplication.jar> <target directory>
+set -e
+
+JAR=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+mkdir -p "$2"
+cd "$2"
+rm -rf unpacked app.jar lib classpath.args classes.lst app.jsa
+
+mkdir unpacked
+(cd unpacked && jar xf "$JAR" BOOT-INF)
+# Classes are archived from jar files only, not from directories
+jar cf app.jar -C unpacked/BOOT-INF/classes .
+mv unpacked/BOOT-INF/lib lib
+# The class path order of the Spring Boot jar
+CLASSPATH=app.jar$(sed -n 's/^- "BOOT-INF\/\(lib\/.*\)"$/:\1/p' unpacked/BOOT-INF/classpath.idx | tr -d '\n')
+echo "-cp $CLASSPATH" > classpath.args
+rm -rf unpacked
+
+java -XX:DumpLoadedClassList=classes.lst -Dspring.profiles.active=prod,cds-training \
+    @classpath.args com.mastery.java.task.MainApp
+java -Xshare:dump -XX:SharedClassListFile=classes.lst -XX:SharedArchiveFile=app.jsa @classpath.args
@@ -0,0 +1,29 @@
+package com.mastery.java.task.benchmark;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.Gender;
+
+import java.time.LocalDate;
+
+/**
+ * Employees shared by the benchmarks.
+ *
+ * @author Sergey Tsynin
+ */
+final class BenchmarkEmployees {
+
+    private BenchmarkEmployees() {
+    }
+
+    static Employee newEmployee(Integer id) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        employee.setFirstName("FirstName" + id);
+        employee.setLastName("LastName" + id);
+        employee.setDepartmentId(42);
+        employee.setJobTitle("JobTitle" + id);
+        employee.setGender(Gender.FEMALE);
+        employee.setDateOfBirth(LocalDate.of(1990, 4, 28));
+        return employee;
+    }
+}
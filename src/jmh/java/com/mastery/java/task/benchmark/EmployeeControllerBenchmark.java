@@ -0,0 +1,96 @@
+package com.mastery.java.task.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mastery.java.task.MainApp;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * End-to-end EmployeeController dispatch through MockMvc: validation, service,
+ * repository on an embedded H2 database and Jackson, without the network.
+ *
+ * @author Sergey Tsynin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmployeeControllerBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+    private String newEmployeeJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(MainApp.class)
+                .run("--spring.profiles.active=benchmark");
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        newEmployeeJson = context.getBean(ObjectMapper.class)
+                .writeValueAsString(BenchmarkEmployees.newEmployee(null));
+        checkStatus(getEmployeeById(), 200);
+        checkStatus(getEmployeesPage(), 200);
+        checkStatus(searchEmployeesByName(), 200);
+        checkStatus(getEmployeesCount(), 200);
+        checkStatus(createEmployee(), 201);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Make sure the benchmarks measure real work and not error responses.
+     */
+    private void checkStatus(int status, int expected) {
+        if (status != expected) {
+            throw new IllegalStateException("Unexpected response status " + status);
+        }
+    }
+
+    @Benchmark
+    public int getEmployeeById() throws Exception {
+        return mockMvc.perform(get("/employees/{id}", 2).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getEmployeesPage() throws Exception {
+        return mockMvc.perform(get("/employees").param("limit", "20").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int searchEmployeesByName() throws Exception {
+        return mockMvc.perform(get("/employees").param("firstName", "udol").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int getEmployeesCount() throws Exception {
+        return mockMvc.perform(get("/employees/count").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    public int createEmployee() throws Exception {
+        return mockMvc.perform(post("/employees")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(newEmployeeJson)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,50 @@
+package com.mastery.java.task.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mastery.java.task.dto.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson (de)serialization of Employee with the LocalDate field (de)serializers,
+ * using an ObjectMapper built the same way as the Spring Boot one.
+ *
+ * @author Sergey Tsynin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeJsonBenchmark {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Employee employee;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(Employee.class);
+        reader = objectMapper.readerFor(Employee.class);
+        employee = BenchmarkEmployees.newEmployee(42);
+        json = writer.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,44 @@
+package com.mastery.java.task.benchmark;
+
+import com.mastery.java.task.dto.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Employee equals, hashCode and toString, the latter being called by every traced log line.
+ *
+ * @author Sergey Tsynin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeObjectMethodsBenchmark {
+
+    private Employee employee;
+    private Employee sameEmployee;
+
+    @Setup
+    public void setUp() {
+        employee = BenchmarkEmployees.newEmployee(42);
+        sameEmployee = BenchmarkEmployees.newEmployee(42);
+    }
+
+    @Benchmark
+    public boolean equalsSameValues() {
+        return employee.equals(sameEmployee);
+    }
+
+    @Benchmark
+    public int hashCodeOfEmployee() {
+        return employee.hashCode();
+    }
+
+    @Benchmark
+    public String toStringOfEmployee() {
+        return employee.toString();
+    }
+}
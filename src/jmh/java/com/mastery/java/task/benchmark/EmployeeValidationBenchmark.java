@@ -0,0 +1,54 @@
+package com.mastery.java.task.benchmark;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.EmployeeAgeConstraintValidator;
+import org.openjdk.jmh.annotations.*;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bean Validation of Employee as done for every request body, and the age constraint alone.
+ *
+ * @author Sergey Tsynin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeValidationBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private EmployeeAgeConstraintValidator ageValidator;
+    private Employee employee;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        ageValidator = new EmployeeAgeConstraintValidator();
+        employee = BenchmarkEmployees.newEmployee(42);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<Employee>> validateEmployee() {
+        return validator.validate(employee);
+    }
+
+    @Benchmark
+    public boolean validateAge() {
+        return ageValidator.isValid(employee.getDateOfBirth(), null);
+    }
+}
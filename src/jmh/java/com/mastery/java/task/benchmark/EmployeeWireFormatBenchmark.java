@@ -0,0 +1,80 @@
+package com.mastery.java.task.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mastery.java.task.dto.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against Smile (de)serialization of one employee and of a packed employee-queue message
+ * of 100 employees. Payload sizes of both formats are printed at setup.
+ *
+ * @author Sergey Tsynin
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeWireFormatBenchmark {
+
+    private static final int PACKED_EMPLOYEES = 100;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private ObjectWriter packedWriter;
+    private ObjectReader packedReader;
+    private Employee employee;
+    private Employee[] employees;
+    private byte[] payload;
+    private byte[] packedPayload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = "smile".equals(format)
+                ? Jackson2ObjectMapperBuilder.smile().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(Employee.class);
+        reader = objectMapper.readerFor(Employee.class);
+        packedWriter = objectMapper.writerFor(Employee[].class);
+        packedReader = objectMapper.readerFor(Employee[].class);
+        employee = BenchmarkEmployees.newEmployee(42);
+        employees = new Employee[PACKED_EMPLOYEES];
+        for (int i = 0; i < PACKED_EMPLOYEES; i++) {
+            employees[i] = BenchmarkEmployees.newEmployee(i);
+        }
+        payload = writer.writeValueAsBytes(employee);
+        packedPayload = packedWriter.writeValueAsBytes(employees);
+        System.out.printf("%n%s: employee %d bytes, %d employees %d bytes%n",
+                format, payload.length, PACKED_EMPLOYEES, packedPayload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(employee);
+    }
+
+    @Benchmark
+    public Employee deserialize() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    @Benchmark
+    public byte[] serializePacked() throws IOException {
+        return packedWriter.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public Employee[] deserializePacked() throws IOException {
+        return packedReader.readValue(packedPayload);
+    }
+}
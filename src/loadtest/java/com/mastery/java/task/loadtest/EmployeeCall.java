@@ -0,0 +1,170 @@
+package com.mastery.java.task.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mastery.java.task.dto.Employee;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls of the load mix, each with the responses it counts as successful.
+ * Calls by id ask for random ids of the existing range, so an id deleted earlier
+ * answers 404, which is an expected response and not an error.
+ *
+ * @author Sergey Tsynin
+ */
+enum EmployeeCall {
+
+    GET("get", 200, 404) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            return target.request("/employees/" + target.randomId(random)).GET();
+        }
+    },
+    PAGE("page", 200) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            return target.request("/employees?limit=20").GET();
+        }
+    },
+    SEARCH("search", 200) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            String parameter = random.nextBoolean() ? "firstName" : "lastName";
+            return target.request("/employees?limit=20&" + parameter + "="
+                    + target.employees.nameFragment(random)).GET();
+        }
+    },
+    COUNT("count", 200) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            return target.request("/employees/count").GET();
+        }
+    },
+    CREATE("create", 201) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            return target.request("/employees").POST(target.json(target.employees.next(random)));
+        }
+    },
+    UPDATE("update", 200, 404, 409) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            int id = target.randomId(random);
+            Employee employee = target.employees.next(random);
+            employee.setEmployeeId(id);
+            return target.request("/employees/" + id).PUT(target.json(employee));
+        }
+    },
+    PATCH("patch", 204, 404, 409) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            Employee patch = new Employee();
+            patch.setJobTitle(target.employees.next(random).getJobTitle());
+            return target.request("/employees/" + target.randomId(random))
+                    .method("PATCH", target.json(patch));
+        }
+    },
+    DELETE("delete", 204, 404) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            return target.request("/employees/" + target.randomId(random)).DELETE();
+        }
+    },
+    QUEUE("queue", 200) {
+        @Override
+        HttpRequest.Builder request(Target target, SplittableRandom random) {
+            return target.request("/queue").POST(target.json(target.employees.next(random)));
+        }
+    };
+
+    final String callName;
+
+    private final Set<Integer> expectedStatuses;
+
+    EmployeeCall(String callName, Integer... expectedStatuses) {
+        this.callName = callName;
+        this.expectedStatuses = Set.copyOf(Arrays.asList(expectedStatuses));
+    }
+
+    abstract HttpRequest.Builder request(Target target, SplittableRandom random);
+
+    boolean isExpected(int status) {
+        return expectedStatuses.contains(status);
+    }
+
+    static EmployeeCall byName(String callName) {
+        for (EmployeeCall call : values()) {
+            if (call.callName.equals(callName)) {
+                return call;
+            }
+        }
+        throw new IllegalArgumentException("Unknown call " + callName + ", expected one of "
+                + Arrays.toString(Arrays.stream(values()).map(call -> call.callName).toArray()));
+    }
+
+    /**
+     * Application under load and what the calls need to build their requests.
+     */
+    static final class Target {
+
+        private final String baseUrl;
+
+        private final Duration timeout;
+
+        private final ObjectMapper objectMapper;
+
+        private final SyntheticEmployees employees;
+
+        /**
+         * Ids of created employees push it up, so they are read and changed as well.
+         */
+        private final AtomicInteger maxId;
+
+        Target(String baseUrl, Duration timeout, ObjectMapper objectMapper,
+               SyntheticEmployees employees, int maxId) {
+            this.baseUrl = baseUrl;
+            this.timeout = timeout;
+            this.objectMapper = objectMapper;
+            this.employees = employees;
+            this.maxId = new AtomicInteger(maxId);
+        }
+
+        /**
+         * @param body response of a create call.
+         */
+        void created(String body) {
+            try {
+                int id = objectMapper.readTree(body).path("employeeId").asInt();
+                maxId.accumulateAndGet(id, Math::max);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Unexpected create response " + body, e);
+            }
+        }
+
+        private int randomId(SplittableRandom random) {
+            return 1 + random.nextInt(Math.max(maxId.get(), 1));
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(timeout)
+                    .header("Accept", "application/json")
+                    .header("Content-Type", "application/json");
+        }
+
+        private HttpRequest.BodyPublisher json(Employee employee) {
+            try {
+                return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(employee));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.mastery.java.task.loadtest;
+
+import com.mastery.java.task.dto.Employee;
+import org.flywaydb.core.Flyway;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+
+/**
+ * Brings the database schema up to date and fills the EMPLOYEE table with synthetic employees
+ * up to the wanted number. Rows are streamed with COPY, which goes through the same triggers
+ * as inserts, so millions of employees take seconds and the aggregates stay right.
+ *
+ * @author Sergey Tsynin
+ */
+final class EmployeeSeeder {
+
+    private static final String COPY_EMPLOYEES = "COPY EMPLOYEE "
+            + "(FIRST_NAME, LAST_NAME, DEPARTMENT_ID, JOB_TITLE, GENDER, DATE_OF_BIRTH) FROM STDIN WITH (FORMAT csv)";
+
+    private static final int ROWS_PER_COPY = 50_000;
+
+    private final DataSource dataSource;
+
+    private final SyntheticEmployees employees;
+
+    EmployeeSeeder(DataSource dataSource, SyntheticEmployees employees) {
+        this.dataSource = dataSource;
+        this.employees = employees;
+    }
+
+    /**
+     * @param wanted employees the table should have.
+     * @param seed   seed of the generated employees.
+     */
+    void seed(int wanted, long seed) throws Exception {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration", "classpath:db/vendor/postgresql")
+                .load()
+                .migrate();
+        try (Connection connection = dataSource.getConnection()) {
+            int existing = count(connection);
+            if (existing >= wanted) {
+                System.out.printf("Database has %d employees%n", existing);
+                return;
+            }
+            System.out.printf("Seeding %d employees%n", wanted - existing);
+            long start = System.nanoTime();
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            SplittableRandom random = new SplittableRandom(seed + existing);
+            StringBuilder rows = new StringBuilder(ROWS_PER_COPY * 64);
+            for (int seeded = existing; seeded < wanted; ) {
+                rows.setLength(0);
+                int chunk = Math.min(ROWS_PER_COPY, wanted - seeded);
+                for (int i = 0; i < chunk; i++) {
+                    appendRow(rows, employees.next(random));
+                }
+                copyManager.copyIn(COPY_EMPLOYEES, new StringReader(rows.toString()));
+                seeded += chunk;
+                if (seeded % 1_000_000 == 0) {
+                    System.out.printf("  %d employees%n", seeded);
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE EMPLOYEE");
+            }
+            System.out.printf("Seeded in %d s%n", (System.nanoTime() - start) / 1_000_000_000);
+        }
+    }
+
+    /**
+     * @return id of the last employee, the upper bound of the ids the load asks for.
+     */
+    int maxEmployeeId() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(EMPLOYEE_ID), 0) FROM EMPLOYEE")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static int count(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM EMPLOYEE")) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    /**
+     * Generated values have no commas, quotes or line breaks, so they need no CSV quoting.
+     */
+    private static void appendRow(StringBuilder rows, Employee employee) {
+        rows.append(employee.getFirstName()).append(',')
+                .append(employee.getLastName()).append(',');
+        if (employee.getDepartmentId() != null) {
+            rows.append(employee.getDepartmentId());
+        }
+        rows.append(',').append(employee.getJobTitle())
+                .append(',').append(employee.getGender())
+                .append(',').append(employee.getDateOfBirth())
+                .append('\n');
+    }
+}
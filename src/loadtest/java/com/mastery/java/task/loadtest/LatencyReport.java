@@ -0,0 +1,145 @@
+package com.mastery.java.task.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the results of a run into the output directory, named by the run label:
+ * <ul>
+ *     <li>label.csv - requests, throughput, errors and latency percentiles by call, one line per call
+ *     and one for all of them, the file to compare between builds</li>
+ *     <li>label-call.hgrm - full percentile distribution of a call, for the HdrHistogram plotter</li>
+ *     <li>label.hlog - measured intervals of every call, tagged by call, for HistogramLogProcessor</li>
+ * </ul>
+ * Latencies are recorded in microseconds and reported in milliseconds.
+ *
+ * @author Sergey Tsynin
+ */
+final class LatencyReport implements AutoCloseable {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private static final String ALL_CALLS = "all";
+
+    private final Path out;
+
+    private final String label;
+
+    private final PrintStream intervalLog;
+
+    private final HistogramLogWriter intervalWriter;
+
+    private final long startMillis = System.currentTimeMillis();
+
+    private long intervalStartMillis = startMillis;
+
+    LatencyReport(Path out, String label) throws IOException {
+        this.out = Files.createDirectories(out);
+        this.label = label;
+        intervalLog = new PrintStream(Files.newOutputStream(out.resolve(label + ".hlog")), false, "UTF-8");
+        intervalWriter = new HistogramLogWriter(intervalLog);
+        intervalWriter.outputLogFormatVersion();
+        intervalWriter.outputStartTime(startMillis);
+        intervalWriter.setBaseTime(startMillis);
+        intervalWriter.outputLegend();
+    }
+
+    /**
+     * Print a progress line and log the interval if it was measured.
+     *
+     * @param measured  false during the warmup.
+     * @param intervals latencies of the interval by call.
+     */
+    void interval(boolean measured, Map<EmployeeCall, Histogram> intervals) {
+        long nowMillis = System.currentTimeMillis();
+        Histogram all = new Histogram(3);
+        intervals.forEach((call, interval) -> {
+            all.add(interval);
+            if (measured) {
+                interval.setStartTimeStamp(intervalStartMillis);
+                interval.setEndTimeStamp(nowMillis);
+                interval.setTag(call.callName);
+                intervalWriter.outputIntervalHistogram(interval);
+            }
+        });
+        double seconds = Math.max(nowMillis - intervalStartMillis, 1) / 1000.0;
+        System.out.printf(Locale.ROOT, "%6.0fs %-7s %8.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms%n",
+                (nowMillis - startMillis) / 1000.0, measured ? "" : "warmup", all.getTotalCount() / seconds,
+                millis(all.getValueAtPercentile(50)), millis(all.getValueAtPercentile(99)), millis(all.getMaxValue()));
+        intervalStartMillis = nowMillis;
+    }
+
+    /**
+     * Write and print the totals of the measurement.
+     *
+     * @param stats           measured latencies and failures by call.
+     * @param durationSeconds length of the measurement.
+     */
+    void total(Map<EmployeeCall, OpenModelLoadGenerator.CallStats> stats, int durationSeconds) throws IOException {
+        Histogram all = new Histogram(3);
+        long allErrors = 0;
+        long allDropped = 0;
+        Path summary = out.resolve(label + ".csv");
+        try (PrintStream csv = new PrintStream(Files.newOutputStream(summary), false, "UTF-8")) {
+            csv.println("call,requests,throughput_rps,errors,dropped,mean_ms,p50_ms,p90_ms,p99_ms,p99.9_ms,p99.99_ms,max_ms");
+            System.out.printf("%n%-8s %9s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                    "call", "requests", "req/s", "errors", "dropped", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+            for (Map.Entry<EmployeeCall, OpenModelLoadGenerator.CallStats> entry : stats.entrySet()) {
+                OpenModelLoadGenerator.CallStats callStats = entry.getValue();
+                String callName = entry.getKey().callName;
+                line(csv, callName, callStats.total, callStats.errors.get(), callStats.dropped.get(), durationSeconds);
+                writePercentiles(callName, callStats.total);
+                all.add(callStats.total);
+                allErrors += callStats.errors.get();
+                allDropped += callStats.dropped.get();
+            }
+            line(csv, ALL_CALLS, all, allErrors, allDropped, durationSeconds);
+            writePercentiles(ALL_CALLS, all);
+        }
+        System.out.printf("%nResults in %s%n", summary.toAbsolutePath());
+    }
+
+    @Override
+    public void close() {
+        intervalLog.close();
+    }
+
+    private static void line(PrintStream csv, String callName, Histogram histogram,
+                             long errors, long dropped, int durationSeconds) {
+        double throughput = (double) histogram.getTotalCount() / durationSeconds;
+        csv.printf(Locale.ROOT, "%s,%d,%.1f,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                callName, histogram.getTotalCount(), throughput, errors, dropped,
+                histogram.getMean() / MICROS_PER_MILLI,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getValueAtPercentile(99.99)),
+                millis(histogram.getMaxValue()));
+        System.out.printf(Locale.ROOT, "%-8s %9d %9.1f %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                callName, histogram.getTotalCount(), throughput, errors, dropped,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    private void writePercentiles(String callName, Histogram histogram) throws IOException {
+        try (PrintStream hgrm = new PrintStream(
+                Files.newOutputStream(out.resolve(label + "-" + callName + ".hgrm")), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(hgrm, MICROS_PER_MILLI);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mastery.java.task.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mastery.java.task.MainApp;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Load test of the employees REST API and employee-queue.
+ * Starts an embedded PostgreSQL, seeds it with synthetic employees, starts the application
+ * on it with the embedded ActiveMQ broker and drives it with an open-model load of the configured mix.
+ * Given url=..., loads an already running application instead.
+ * <p>
+ * Arguments, as key=value: rate, arrivals (poisson, uniform), warmup, duration, mix, employees, seed,
+ * data-dir, url, max-in-flight, timeout, report-interval, out, label. See {@link LoadTestSettings}.
+ * The load generator shares the JVM with the application, so compare runs made on the same machine.
+ *
+ * @author Sergey Tsynin
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        System.out.println("Load test: " + settings);
+        SyntheticEmployees employees = new SyntheticEmployees();
+        if (settings.url != null) {
+            load(settings, settings.url, employees, count(settings.url));
+        } else {
+            try (EmbeddedPostgres postgres = startPostgres(settings)) {
+                EmployeeSeeder seeder = new EmployeeSeeder(postgres.getPostgresDatabase(), employees);
+                seeder.seed(settings.employees, settings.seed);
+                int maxId = seeder.maxEmployeeId();
+                try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MainApp.class).run(
+                        "--spring.profiles.active=loadtest",
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=")) {
+                    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                    load(settings, "http://localhost:" + port, employees, maxId);
+                }
+            }
+        }
+        // Stop the HTTP client selector thread
+        System.exit(0);
+    }
+
+    private static EmbeddedPostgres startPostgres(LoadTestSettings settings) throws Exception {
+        EmbeddedPostgres.Builder builder = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200");
+        if (settings.dataDirectory != null) {
+            builder.setDataDirectory(settings.dataDirectory).setCleanDataDirectory(false);
+        }
+        return builder.start();
+    }
+
+    private static void load(LoadTestSettings settings, String baseUrl,
+                             SyntheticEmployees employees, int maxId) throws Exception {
+        // A few threads are enough for asynchronous sends, the default executor starts one per waiting response
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+                    Thread thread = new Thread(runnable, "loadtest-client");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(settings.timeoutSeconds))
+                .build();
+        EmployeeCall.Target target = new EmployeeCall.Target(baseUrl, Duration.ofSeconds(settings.timeoutSeconds),
+                new ObjectMapper(), employees, maxId);
+        System.out.printf("Loading %s, employee ids up to %d%n", baseUrl, maxId);
+        try (LatencyReport report = new LatencyReport(settings.out, settings.label)) {
+            new OpenModelLoadGenerator(settings, target, client).run(report);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return employees of a running application, an estimate of its highest employee id.
+     */
+    private static int count(String baseUrl) throws Exception {
+        HttpResponse<String> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(URI.create(baseUrl + "/employees/count")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        return Integer.parseInt(response.body().trim());
+    }
+}
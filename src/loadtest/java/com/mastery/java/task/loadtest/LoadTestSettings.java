@@ -0,0 +1,142 @@
+package com.mastery.java.task.loadtest;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load test settings, given as key=value arguments or as loadtest.key system properties.
+ *
+ * @author Sergey Tsynin
+ */
+final class LoadTestSettings {
+
+    private static final String DEFAULT_MIX =
+            "get:40,page:10,search:15,count:10,create:8,update:5,patch:5,delete:2,queue:5";
+
+    /**
+     * Requests started per second, whatever the response times.
+     */
+    final double rate;
+
+    /**
+     * "poisson" for exponentially distributed gaps between requests, "uniform" for equal ones.
+     */
+    final boolean poisson;
+
+    final int warmupSeconds;
+
+    final int durationSeconds;
+
+    /**
+     * Requests over this many waiting for a response are not sent and counted as dropped.
+     */
+    final int maxInFlight;
+
+    final int timeoutSeconds;
+
+    final int reportIntervalSeconds;
+
+    final Map<EmployeeCall, Integer> mix;
+
+    /**
+     * Employees in the database before the load starts, missing ones are generated.
+     */
+    final int employees;
+
+    final long seed;
+
+    /**
+     * PostgreSQL data directory kept between runs, so a big data set is seeded once. Temporary if null.
+     */
+    final Path dataDirectory;
+
+    /**
+     * Address of an already running application to load instead of starting one, nothing is seeded then.
+     */
+    final String url;
+
+    final Path out;
+
+    /**
+     * Name of the result files, the build being measured.
+     */
+    final String label;
+
+    private LoadTestSettings(Map<String, String> values) {
+        Values settings = new Values(values);
+        rate = Double.parseDouble(settings.get("rate", "200"));
+        poisson = "poisson".equals(settings.get("arrivals", "poisson"));
+        warmupSeconds = Integer.parseInt(settings.get("warmup", "10"));
+        durationSeconds = Integer.parseInt(settings.get("duration", "60"));
+        maxInFlight = Integer.parseInt(settings.get("max-in-flight", "10000"));
+        timeoutSeconds = Integer.parseInt(settings.get("timeout", "30"));
+        reportIntervalSeconds = Integer.parseInt(settings.get("report-interval", "5"));
+        mix = parseMix(settings.get("mix", DEFAULT_MIX));
+        employees = Integer.parseInt(settings.get("employees", "100000"));
+        seed = Long.parseLong(settings.get("seed", "42"));
+        String dataDirectoryValue = settings.get("data-dir", "");
+        dataDirectory = dataDirectoryValue.isEmpty() ? null : Path.of(dataDirectoryValue);
+        String urlValue = settings.get("url", "");
+        url = urlValue.isEmpty() ? null : urlValue;
+        out = Path.of(settings.get("out", "target/loadtest"));
+        label = settings.get("label",
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        if (rate <= 0 || durationSeconds <= 0 || mix.isEmpty()) {
+            throw new IllegalArgumentException("rate, duration and mix must be positive");
+        }
+    }
+
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value instead of " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestSettings(values);
+    }
+
+    /**
+     * @param mix comma separated call:weight pairs, such as get:40,create:10.
+     */
+    private static Map<EmployeeCall, Integer> parseMix(String mix) {
+        Map<EmployeeCall, Integer> weights = new EnumMap<>(EmployeeCall.class);
+        for (String entry : mix.split(",")) {
+            String[] callWeight = entry.trim().split(":");
+            if (callWeight.length != 2) {
+                throw new IllegalArgumentException("Expected call:weight instead of " + entry);
+            }
+            int weight = Integer.parseInt(callWeight[1].trim());
+            if (weight > 0) {
+                weights.put(EmployeeCall.byName(callWeight[0].trim()), weight);
+            }
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "rate=" + rate + "/s, arrivals=" + (poisson ? "poisson" : "uniform")
+                + ", warmup=" + warmupSeconds + "s, duration=" + durationSeconds + "s, mix=" + mix
+                + (url == null ? ", employees=" + employees : ", url=" + url);
+    }
+
+    private static final class Values {
+
+        private final Map<String, String> values;
+
+        private Values(Map<String, String> values) {
+            this.values = values;
+        }
+
+        private String get(String key, String defaultValue) {
+            return values.getOrDefault(key, System.getProperty("loadtest." + key, defaultValue));
+        }
+    }
+}
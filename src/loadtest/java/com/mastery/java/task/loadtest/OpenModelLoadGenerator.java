@@ -0,0 +1,166 @@
+package com.mastery.java.task.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Starts requests on a schedule of the target rate, without waiting for earlier responses,
+ * the way independent users arrive. Latency is counted from the time a request was due,
+ * not from the time it was sent, so a stalled application or client shows in the percentiles
+ * instead of quietly lowering the rate (no coordinated omission).
+ * Only requests due after the warmup are measured.
+ *
+ * @author Sergey Tsynin
+ */
+final class OpenModelLoadGenerator {
+
+    private final LoadTestSettings settings;
+
+    private final EmployeeCall.Target target;
+
+    private final HttpClient client;
+
+    private final EmployeeCall[] calls;
+
+    private final int[] cumulativeWeights;
+
+    private final Map<EmployeeCall, CallStats> stats = new EnumMap<>(EmployeeCall.class);
+
+    private final Semaphore inFlight;
+
+    OpenModelLoadGenerator(LoadTestSettings settings, EmployeeCall.Target target, HttpClient client) {
+        this.settings = settings;
+        this.target = target;
+        this.client = client;
+        calls = settings.mix.keySet().toArray(new EmployeeCall[0]);
+        cumulativeWeights = new int[calls.length];
+        int total = 0;
+        for (int i = 0; i < calls.length; i++) {
+            total += settings.mix.get(calls[i]);
+            cumulativeWeights[i] = total;
+            stats.put(calls[i], new CallStats());
+        }
+        inFlight = new Semaphore(settings.maxInFlight);
+    }
+
+    /**
+     * Run the warmup and the measurement, printing interval results on the way.
+     *
+     * @param report receives the interval and total results.
+     */
+    void run(LatencyReport report) throws InterruptedException, IOException {
+        SplittableRandom random = new SplittableRandom(settings.seed);
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(settings.warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(settings.durationSeconds);
+        long nextReport = start + TimeUnit.SECONDS.toNanos(settings.reportIntervalSeconds);
+        boolean measuring = settings.warmupSeconds == 0;
+        double due = start;
+        while (due < end) {
+            long dueNanos = (long) due;
+            long now;
+            while ((now = System.nanoTime()) < dueNanos) {
+                LockSupport.parkNanos(dueNanos - now);
+            }
+            if (!measuring && now >= measureFrom) {
+                report.interval(false, intervalHistograms(false));
+                measuring = true;
+                nextReport = now + TimeUnit.SECONDS.toNanos(settings.reportIntervalSeconds);
+            } else if (now >= nextReport) {
+                report.interval(measuring, intervalHistograms(measuring));
+                nextReport += TimeUnit.SECONDS.toNanos(settings.reportIntervalSeconds);
+            }
+            send(nextCall(random), random, dueNanos, dueNanos >= measureFrom);
+            due += settings.poisson ? -Math.log(1 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+        }
+        // Late responses still belong to the measurement, the client gives up on them after the timeout
+        if (!inFlight.tryAcquire(settings.maxInFlight, settings.timeoutSeconds + 1L, TimeUnit.SECONDS)) {
+            System.out.printf("%d requests still unanswered are not counted%n",
+                    settings.maxInFlight - inFlight.availablePermits());
+        }
+        report.interval(true, intervalHistograms(true));
+        report.total(stats, settings.durationSeconds);
+    }
+
+    private EmployeeCall nextCall(SplittableRandom random) {
+        int choice = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < calls.length; i++) {
+            if (choice < cumulativeWeights[i]) {
+                return calls[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void send(EmployeeCall call, SplittableRandom random, long dueNanos, boolean measured) {
+        CallStats callStats = stats.get(call);
+        if (!inFlight.tryAcquire()) {
+            if (measured) {
+                callStats.dropped.incrementAndGet();
+            }
+            return;
+        }
+        client.sendAsync(call.request(target, random).build(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, failure) -> {
+                    long latency = System.nanoTime() - dueNanos;
+                    inFlight.release();
+                    if (response != null && call == EmployeeCall.CREATE && response.statusCode() == 201) {
+                        target.created(response.body());
+                    }
+                    if (!measured) {
+                        callStats.warmup.recordValue(TimeUnit.NANOSECONDS.toMicros(latency));
+                        return;
+                    }
+                    callStats.recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latency));
+                    if (response == null || !call.isExpected(response.statusCode())) {
+                        callStats.errors.incrementAndGet();
+                    }
+                });
+    }
+
+    /**
+     * @param measured false for the latencies of warmup requests, which are left out of the totals.
+     * @return latencies recorded since the previous call, by call.
+     */
+    private Map<EmployeeCall, Histogram> intervalHistograms(boolean measured) {
+        Map<EmployeeCall, Histogram> intervals = new EnumMap<>(EmployeeCall.class);
+        stats.forEach((call, callStats) -> {
+            if (measured) {
+                Histogram interval = callStats.recorder.getIntervalHistogram();
+                callStats.total.add(interval);
+                intervals.put(call, interval);
+            } else {
+                intervals.put(call, callStats.warmup.getIntervalHistogram());
+            }
+        });
+        return intervals;
+    }
+
+    /**
+     * Measured latencies, in microseconds, and failures of one call.
+     */
+    static final class CallStats {
+
+        private final Recorder recorder = new Recorder(3);
+
+        private final Recorder warmup = new Recorder(3);
+
+        final Histogram total = new Histogram(3);
+
+        final AtomicLong errors = new AtomicLong();
+
+        final AtomicLong dropped = new AtomicLong();
+    }
+}
@@ -0,0 +1,230 @@
+package com.mastery.java.task.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.postgresql.ds.PGSimpleDataSource;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup test: time to the first request of the packaged application, started in a new JVM.
+ * Every mode is started once unmeasured, then runs times. A start is measured from launching the JVM
+ * until the first successful GET /employees, polled every few milliseconds, and the duration
+ * of that first request is kept as well, since lazily created beans move work into it.
+ * The application runs on an embedded PostgreSQL, or on db-url, seeded with synthetic employees,
+ * and with the embedded ActiveMQ broker.
+ * <p>
+ * Arguments, as key=value: runs, modes (jar, lazy, cds), jar, cds-script, jvm-args, timeout, employees,
+ * db-url, db-user, db-password, out, label. See {@link StartupTestSettings}.
+ * Results go to label-startup.csv of the output directory, application logs to label-startup.log.
+ *
+ * @author Sergey Tsynin
+ */
+public final class StartupTest {
+
+    private static final long POLL_INTERVAL_MS = 5;
+
+    private StartupTest() {
+    }
+
+    /**
+     * How the application is started, in the prod profile.
+     */
+    enum Mode {
+        /**
+         * java -jar with every bean created on start and the API docs scanned from the controllers,
+         * as before the startup-optimized mode.
+         */
+        JAR("jar"),
+        /**
+         * java -jar with lazily created beans and the API docs generated by the build.
+         */
+        LAZY("lazy"),
+        /**
+         * The unpacked jar with the class-data-sharing archive built by cds.sh, as in the image.
+         */
+        CDS("cds");
+
+        private final String name;
+
+        Mode(String name) {
+            this.name = name;
+        }
+
+        static Mode byName(String name) {
+            return Arrays.stream(values())
+                    .filter(mode -> mode.name.equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown mode " + name));
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupTestSettings settings = StartupTestSettings.parse(args);
+        System.out.println("Startup test: " + settings);
+        Files.createDirectories(settings.out);
+        Path log = settings.out.resolve(settings.label + "-startup.log");
+        Files.deleteIfExists(log);
+        Path cdsDirectory = settings.out.resolve("cds");
+        if (settings.modes.contains(Mode.CDS)) {
+            buildArchive(settings, cdsDirectory, log);
+        }
+        if (settings.dbUrl != null) {
+            PGSimpleDataSource dataSource = new PGSimpleDataSource();
+            dataSource.setURL(settings.dbUrl);
+            dataSource.setUser(settings.dbUser);
+            dataSource.setPassword(settings.dbPassword);
+            new EmployeeSeeder(dataSource, new SyntheticEmployees()).seed(settings.employees, 42);
+            run(settings, cdsDirectory, log, List.of("--spring.datasource.url=" + settings.dbUrl,
+                    "--spring.datasource.username=" + settings.dbUser,
+                    "--spring.datasource.password=" + settings.dbPassword));
+        } else {
+            try (EmbeddedPostgres postgres = EmbeddedPostgres.start()) {
+                new EmployeeSeeder(postgres.getPostgresDatabase(), new SyntheticEmployees())
+                        .seed(settings.employees, 42);
+                run(settings, cdsDirectory, log, List.of(
+                        "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password="));
+            }
+        }
+    }
+
+    private static void buildArchive(StartupTestSettings settings, Path cdsDirectory, Path log) throws Exception {
+        System.out.println("Building the class-data-sharing archive in " + cdsDirectory);
+        Process process = new ProcessBuilder("sh", settings.cdsScript.toString(),
+                settings.jar.toString(), cdsDirectory.toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                .start();
+        if (process.waitFor() != 0) {
+            throw new IllegalStateException(settings.cdsScript + " failed, see " + log);
+        }
+    }
+
+    private static void run(StartupTestSettings settings, Path cdsDirectory, Path log,
+                            List<String> databaseArgs) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        Path csv = settings.out.resolve(settings.label + "-startup.csv");
+        try (PrintStream results = new PrintStream(Files.newOutputStream(csv), true, "UTF-8")) {
+            results.println("mode,run,time_to_first_request_ms,first_request_ms");
+            for (Mode mode : settings.modes) {
+                start(settings, mode, cdsDirectory, log, databaseArgs, client);
+                long[] timesToFirstRequest = new long[settings.runs];
+                long[] firstRequests = new long[settings.runs];
+                for (int run = 0; run < settings.runs; run++) {
+                    long[] times = start(settings, mode, cdsDirectory, log, databaseArgs, client);
+                    timesToFirstRequest[run] = times[0];
+                    firstRequests[run] = times[1];
+                    results.printf(Locale.ROOT, "%s,%d,%d,%d%n", mode, run + 1, times[0], times[1]);
+                }
+                Arrays.sort(timesToFirstRequest);
+                Arrays.sort(firstRequests);
+                System.out.printf(Locale.ROOT, "%-5s time to first request: median %d ms, min %d ms, max %d ms;"
+                                + " first request: median %d ms%n", mode,
+                        median(timesToFirstRequest), timesToFirstRequest[0],
+                        timesToFirstRequest[timesToFirstRequest.length - 1], median(firstRequests));
+            }
+        }
+        System.out.println("Results were written to " + csv);
+    }
+
+    /**
+     * @return time to the first request and duration of the first request, in milliseconds.
+     */
+    private static long[] start(StartupTestSettings settings, Mode mode, Path cdsDirectory, Path log,
+                                List<String> databaseArgs, HttpClient client) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(settings.jvmArgs);
+        if (mode == Mode.CDS) {
+            command.addAll(List.of("-XX:SharedArchiveFile=app.jsa", "@classpath.args",
+                    "com.mastery.java.task.MainApp"));
+        } else {
+            command.addAll(List.of("-jar", settings.jar.toAbsolutePath().toString()));
+        }
+        command.add("--spring.profiles.active=prod");
+        if (mode == Mode.JAR) {
+            command.addAll(List.of("--spring.main.lazy-initialization=false",
+                    "--springfox.documentation.enabled=true",
+                    "--spring.mvc.servlet.load-on-startup=-1"));
+        }
+        command.add("--server.port=" + port);
+        command.add("--spring.activemq.broker-url=vm://startup?broker.persistent=false&broker.useJmx=false");
+        command.addAll(databaseArgs);
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()));
+        if (mode == Mode.CDS) {
+            builder.directory(cdsDirectory.toFile());
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/employees?limit=1"))
+                .timeout(Duration.ofSeconds(settings.timeoutSeconds))
+                .build();
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(settings.timeoutSeconds);
+        Process process = builder.start();
+        try {
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + ", see " + log);
+                }
+                long requestStart = System.nanoTime();
+                try {
+                    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    long end = System.nanoTime();
+                    if (status != 200) {
+                        throw new IllegalStateException(mode + " answered the first request with " + status);
+                    }
+                    return new long[]{
+                            TimeUnit.NANOSECONDS.toMillis(end - start),
+                            TimeUnit.NANOSECONDS.toMillis(end - requestStart)};
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException(mode + " did not answer in " + settings.timeoutSeconds + " s");
+                }
+                Thread.sleep(POLL_INTERVAL_MS);
+            }
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] sorted) {
+        return sorted[sorted.length / 2];
+    }
+}
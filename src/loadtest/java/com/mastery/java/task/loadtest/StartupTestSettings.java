@@ -0,0 +1,121 @@
+package com.mastery.java.task.loadtest;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup test settings, given as key=value arguments or as loadtest.key system properties.
+ *
+ * @author Sergey Tsynin
+ */
+final class StartupTestSettings {
+
+    /**
+     * Measured starts of every mode, after one start that is not measured.
+     */
+    final int runs;
+
+    final List<StartupTest.Mode> modes;
+
+    /**
+     * The Spring Boot jar built by the project.
+     */
+    final Path jar;
+
+    /**
+     * Script building the class-data-sharing archive, the same one the image is built with.
+     */
+    final Path cdsScript;
+
+    /**
+     * JVM options of the application, such as -Xmx512m.
+     */
+    final List<String> jvmArgs;
+
+    /**
+     * Seconds an application may take to answer its first request.
+     */
+    final int timeoutSeconds;
+
+    /**
+     * Employees in the database before the starts, missing ones are generated.
+     */
+    final int employees;
+
+    /**
+     * Database to start the application on, instead of an embedded one, with db-user and db-password.
+     */
+    final String dbUrl;
+
+    final String dbUser;
+
+    final String dbPassword;
+
+    final Path out;
+
+    /**
+     * Name of the result files, the build being measured.
+     */
+    final String label;
+
+    private StartupTestSettings(Map<String, String> values) {
+        Values settings = new Values(values);
+        runs = Integer.parseInt(settings.get("runs", "5"));
+        modes = new ArrayList<>();
+        for (String mode : settings.get("modes", "jar,lazy,cds").split(",")) {
+            modes.add(StartupTest.Mode.byName(mode.trim()));
+        }
+        jar = Path.of(settings.get("jar", "target/RestApplication.jar"));
+        cdsScript = Path.of(settings.get("cds-script", "cds.sh"));
+        String jvmArgsValue = settings.get("jvm-args", "").trim();
+        jvmArgs = jvmArgsValue.isEmpty() ? List.of() : List.of(jvmArgsValue.split("\\s+"));
+        timeoutSeconds = Integer.parseInt(settings.get("timeout", "120"));
+        employees = Integer.parseInt(settings.get("employees", "1000"));
+        String dbUrlValue = settings.get("db-url", "");
+        dbUrl = dbUrlValue.isEmpty() ? null : dbUrlValue;
+        dbUser = settings.get("db-user", "employeedb");
+        dbPassword = settings.get("db-password", "fakepass");
+        out = Path.of(settings.get("out", "target/loadtest"));
+        label = settings.get("label",
+                LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")));
+        if (runs <= 0 || modes.isEmpty()) {
+            throw new IllegalArgumentException("runs and modes must be positive");
+        }
+    }
+
+    static StartupTestSettings parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Expected key=value instead of " + arg);
+            }
+            values.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return new StartupTestSettings(values);
+    }
+
+    @Override
+    public String toString() {
+        return "runs=" + runs + ", modes=" + modes + ", jar=" + jar + ", jvm-args=" + jvmArgs
+                + (dbUrl == null ? ", employees=" + employees : ", db-url=" + dbUrl);
+    }
+
+    private static final class Values {
+
+        private final Map<String, String> values;
+
+        private Values(Map<String, String> values) {
+            this.values = values;
+        }
+
+        private String get(String key, String defaultValue) {
+            return values.getOrDefault(key, System.getProperty("loadtest." + key, defaultValue));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mastery.java.task.loadtest;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.Gender;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Generates valid employees with names made of syllables, so that name searches
+ * by a syllable find a share of employees the way searches by a real name part do.
+ * The same seed gives the same employees.
+ *
+ * @author Sergey Tsynin
+ */
+final class SyntheticEmployees {
+
+    private static final String[] SYLLABLES = {
+            "al", "an", "ar", "bel", "ben", "bor", "car", "dan", "del", "dor", "el", "en", "er", "fin", "gar",
+            "hal", "han", "ia", "il", "in", "jon", "kar", "ken", "la", "len", "lin", "ma", "mar", "mel", "mi",
+            "na", "nor", "ol", "or", "pe", "per", "ra", "ren", "ric", "ro", "sa", "sen", "sha", "son", "ta",
+            "ter", "to", "ur", "va", "vic", "wal", "win", "ya", "zan"};
+
+    private static final String[] JOB_TITLES = {
+            "Engineer", "Senior Engineer", "Analyst", "Accountant", "Manager", "Designer",
+            "Tester", "Recruiter", "Support Specialist", "Sales Representative", "Architect", "Director"};
+
+    private static final int DEPARTMENTS = 50;
+
+    private static final int MIN_AGE = 18;
+
+    private static final int MAX_AGE = 65;
+
+    private final LocalDate today = LocalDate.now();
+
+    /**
+     * @param random source of the employee fields.
+     * @return new employee without id and version.
+     */
+    Employee next(SplittableRandom random) {
+        Employee employee = new Employee();
+        employee.setFirstName(name(random, 2 + random.nextInt(2)));
+        employee.setLastName(name(random, 2 + random.nextInt(3)));
+        // Some employees are not assigned to a department yet
+        employee.setDepartmentId(random.nextInt(DEPARTMENTS) == 0 ? null : 1 + random.nextInt(DEPARTMENTS));
+        employee.setJobTitle(JOB_TITLES[random.nextInt(JOB_TITLES.length)]);
+        int gender = random.nextInt(100);
+        employee.setGender(gender < 48 ? Gender.MALE : gender < 96 ? Gender.FEMALE : Gender.UNSPECIFIED);
+        employee.setDateOfBirth(today
+                .minusYears(MIN_AGE + random.nextInt(MAX_AGE - MIN_AGE))
+                .minusDays(1 + random.nextInt(364)));
+        return employee;
+    }
+
+    /**
+     * @param random source of the syllables.
+     * @return two syllables to search names by, long enough for the name index trigrams.
+     */
+    String nameFragment(SplittableRandom random) {
+        return SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+
+    private static String name(SplittableRandom random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.mastery.java.task.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches are configured by the spring.cache.* properties.
+ * EmployeeService reads and evicts the employees cache itself rather than through annotations,
+ * so that a load holds the entry against evictions and callers get copies of the cached employee.
+ *
+ * @author Sergey Tsynin
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+}
@@ -0,0 +1,190 @@
+package com.mastery.java.task.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageType;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Sends objects as JSON text messages, and as gzip-compressed JSON bytes messages once
+ * the JSON reaches the compression threshold. Compressed messages carry the
+ * {@link #COMPRESSION_PROPERTY}, so both kinds can be read from the same queue.
+ * In Smile format objects are always sent as bytes messages marked with the {@link #FORMAT_PROPERTY},
+ * and JSON messages are still read, so producers and consumers can switch formats one by one.
+ * Message bodies are read up to the max message size, after decompression, so that a small gzip bomb
+ * fails to convert, and goes to the dead letter queue, instead of filling the heap.
+ *
+ * @author Sergey Tsynin
+ */
+public class CompressingJacksonMessageConverter extends MappingJackson2MessageConverter {
+
+    public static final String COMPRESSION_PROPERTY = "_compression";
+
+    public static final String FORMAT_PROPERTY = "_format";
+
+    public static final String SMILE_FORMAT = "smile";
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper jsonMapper = configure(new ObjectMapper());
+
+    private final ObjectMapper smileMapper = configure(new ObjectMapper(new SmileFactory()));
+
+    private final int compressionThreshold;
+
+    private final boolean smile;
+
+    private final int maxMessageSize;
+
+    /**
+     * @param compressionThreshold size in bytes from which messages are compressed.
+     * @param smile                true to send Smile instead of JSON.
+     * @param maxMessageSize       size in bytes of the largest message body read, after decompression.
+     */
+    public CompressingJacksonMessageConverter(int compressionThreshold, boolean smile, int maxMessageSize) {
+        this.compressionThreshold = compressionThreshold;
+        this.smile = smile;
+        this.maxMessageSize = maxMessageSize;
+        setObjectMapper(smile ? smileMapper : jsonMapper);
+        setTargetType(smile ? MessageType.BYTES : MessageType.TEXT);
+    }
+
+    @Override
+    public Message toMessage(Object object, Session session) throws JMSException, MessageConversionException {
+        return toMessage(object, session, (smile ? smileMapper : jsonMapper).writer());
+    }
+
+    @Override
+    protected Message toMessage(Object object, Session session, ObjectWriter objectWriter)
+            throws JMSException, MessageConversionException {
+        Message message;
+        try {
+            byte[] body = objectWriter.writeValueAsBytes(object);
+            if (!smile && body.length < compressionThreshold) {
+                message = session.createTextMessage(new String(body, StandardCharsets.UTF_8));
+            } else {
+                BytesMessage bytesMessage = session.createBytesMessage();
+                if (body.length < compressionThreshold) {
+                    bytesMessage.writeBytes(body);
+                } else {
+                    bytesMessage.writeBytes(gzip(body));
+                    bytesMessage.setStringProperty(COMPRESSION_PROPERTY, GZIP);
+                }
+                if (smile) {
+                    bytesMessage.setStringProperty(FORMAT_PROPERTY, SMILE_FORMAT);
+                }
+                message = bytesMessage;
+            }
+        } catch (IOException e) {
+            throw new MessageConversionException("Could not map JSON object [" + object + "]", e);
+        }
+        setTypeIdOnMessage(object, message);
+        return message;
+    }
+
+    @Override
+    protected Object convertFromTextMessage(TextMessage message, JavaType targetJavaType)
+            throws JMSException, IOException {
+        return jsonMapper.readValue(message.getText(), targetJavaType);
+    }
+
+    @Override
+    protected Object convertFromBytesMessage(BytesMessage message, JavaType targetJavaType)
+            throws JMSException, IOException {
+        ObjectMapper mapper = SMILE_FORMAT.equals(message.getStringProperty(FORMAT_PROPERTY))
+                ? smileMapper : jsonMapper;
+        if (message.getBodyLength() > maxMessageSize) {
+            throw tooLarge();
+        }
+        byte[] body = new byte[(int) message.getBodyLength()];
+        message.readBytes(body);
+        if (!GZIP.equals(message.getStringProperty(COMPRESSION_PROPERTY))) {
+            return mapper.readValue(body, targetJavaType);
+        }
+        try (InputStream in = new BoundedInputStream(new GZIPInputStream(new ByteArrayInputStream(body)))) {
+            return mapper.readValue(in, targetJavaType);
+        }
+    }
+
+    private IOException tooLarge() {
+        return new IOException("Message body is larger than " + maxMessageSize + " bytes");
+    }
+
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        return objectMapper
+                .configure(MapperFeature.DEFAULT_VIEW_INCLUSION, false)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (OutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Fails the read once more than max message size bytes have been read.
+     */
+    private class BoundedInputStream extends FilterInputStream {
+
+        private long remaining = maxMessageSize;
+
+        BoundedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                consumed(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consumed(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            consumed(skipped);
+            return skipped;
+        }
+
+        private void consumed(long n) throws IOException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw tooLarge();
+            }
+        }
+    }
+}
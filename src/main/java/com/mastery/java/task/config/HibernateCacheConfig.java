@@ -0,0 +1,70 @@
+package com.mastery.java.task.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.mastery.java.task.dto.Employee;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regions of the Hibernate second-level cache, JCache caches of Caffeine sized and timed
+ * by the employees.l2cache.* properties.
+ * Query results are only ids, their employees are taken from the entity region,
+ * so the entity region should live at least as long as the query one.
+ *
+ * @author Sergey Tsynin
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String EMPLOYEE_QUERY_REGION = "employee-queries";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${employees.l2cache.employee.max-size:10000}") long employeeMaxSize,
+            @Value("${employees.l2cache.employee.ttl-ms:600000}") long employeeTtl,
+            @Value("${employees.l2cache.query.max-size:1000}") long queryMaxSize,
+            @Value("${employees.l2cache.query.ttl-ms:60000}") long queryTtl) {
+        // A manager of this context rather than the default one of the JVM, whose regions would clash
+        // with the ones of another context, such as a second test context
+        CachingProvider cachingProvider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = cachingProvider.getCacheManager(
+                URI.create("urn:employees-l2cache:" + UUID.randomUUID()), cachingProvider.getDefaultClassLoader());
+        cacheManager.createCache(Employee.CACHE_REGION, region(employeeMaxSize, employeeTtl));
+        cacheManager.createCache(EMPLOYEE_QUERY_REGION, region(queryMaxSize, queryTtl));
+        // Last write time of each table, must outlive every cached query result
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                region(-1, -1));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    /**
+     * @param maxSize entries, unbounded if negative.
+     * @param ttl     milliseconds after a write, unlimited if negative.
+     */
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, long ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setMaximumSize(maxSize < 0 ? OptionalLong.empty() : OptionalLong.of(maxSize));
+        configuration.setExpireAfterWrite(
+                ttl < 0 ? OptionalLong.empty() : OptionalLong.of(TimeUnit.MILLISECONDS.toNanos(ttl)));
+        return configuration;
+    }
+}
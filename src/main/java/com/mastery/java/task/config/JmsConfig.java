@@ -1,10 +1,13 @@
 package com.mastery.java.task.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jms.DefaultJmsListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
+import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
 import org.springframework.jms.support.converter.MessageConverter;
-import org.springframework.jms.support.converter.MessageType;
+
+import javax.jms.ConnectionFactory;
 
 /**
  * @author Sergey Tsynin
@@ -12,11 +15,76 @@ import org.springframework.jms.support.converter.MessageType;
 @Configuration
 public class JmsConfig {
 
+    public static final String EMPLOYEE_QUEUE = "employee-queue";
+
+    /**
+     * ActiveMQ delivers messages of one group to one consumer at a time, in order.
+     */
+    public static final String MESSAGE_GROUP_PROPERTY = "JMSXGroupID";
+
+    /**
+     * Consumer mode taking one message per transaction with the @JmsListener.
+     */
+    public static final String SINGLE_CONSUMER_MODE = "single";
+
+    /**
+     * Consumer mode draining messages in batches with JmsBatchEmployeeConsumer.
+     */
+    public static final String BATCH_CONSUMER_MODE = "batch";
+
+    /**
+     * Producer mode sending in the calling thread.
+     */
+    public static final String SYNC_PRODUCER_MODE = "sync";
+
+    /**
+     * Producer mode handing employees over to JmsAsyncEmployeeProducer.
+     */
+    public static final String ASYNC_PRODUCER_MODE = "async";
+
+    /**
+     * employee-queue goes through the ActiveMQ broker.
+     */
+    public static final String JMS_TRANSPORT = "jms";
+
+    /**
+     * employee-queue is the in-process LocalEmployeeQueue, the broker is not used.
+     */
+    public static final String LOCAL_TRANSPORT = "local";
+
+    /**
+     * Employee messages in JSON, or in Smile with employees.jms.message-format=smile.
+     */
     @Bean
-    public MessageConverter jacksonJmsMessageConverter() {
-        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
-        converter.setTargetType(MessageType.TEXT);
+    public MessageConverter jacksonJmsMessageConverter(
+            @Value("${employees.jms.producer.compression-threshold:1024}") int compressionThreshold,
+            @Value("${employees.jms.message-format:json}") String messageFormat,
+            @Value("${employees.jms.consumer.max-message-size:10485760}") int maxMessageSize) {
+        CompressingJacksonMessageConverter converter = new CompressingJacksonMessageConverter(compressionThreshold,
+                CompressingJacksonMessageConverter.SMILE_FORMAT.equals(messageFormat), maxMessageSize);
         converter.setTypeIdPropertyName("_type");
         return converter;
     }
+
+    /**
+     * Replaces the default listener container factory, so that @JmsListener containers
+     * stay stopped when the queue is drained by the batch consumer or is not on the broker at all.
+     * Containers run between spring.jms.listener.concurrency and max-concurrency consumers:
+     * one more is started while all of them are busy. A consumer task ends after
+     * max-messages-per-task receive attempts, and a surplus consumer whose task received
+     * nothing is released, so the container shrinks back once the queue is drained.
+     */
+    @Bean
+    public DefaultJmsListenerContainerFactory jmsListenerContainerFactory(
+            DefaultJmsListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${employees.jms.consumer.mode:" + SINGLE_CONSUMER_MODE + "}") String consumerMode,
+            @Value("${employees.jms.consumer.max-messages-per-task:-1}") int maxMessagesPerTask,
+            @Value("${employees.queue.transport:" + JMS_TRANSPORT + "}") String transport) {
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setAutoStartup(JMS_TRANSPORT.equals(transport) && !BATCH_CONSUMER_MODE.equals(consumerMode));
+        factory.setMaxMessagesPerTask(maxMessagesPerTask);
+        return factory;
+    }
 }
@@ -0,0 +1,108 @@
+package com.mastery.java.task.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to the read replicas of employees.datasource.replica-urls
+ * and everything else, including the JMS consumers and Flyway, to the spring.datasource primary.
+ * Replicas are connected with the primary credentials and spring.datasource.hikari settings.
+ * What is read from the replicas is not put into the second-level and query caches, see ReplicaReadJpaDialect.
+ * Without replica-urls the single spring.datasource is used as is.
+ *
+ * @author Sergey Tsynin
+ */
+@Configuration
+@ConditionalOnProperty(name = "employees.datasource.replica-urls")
+public class ReplicaDataSourceConfig implements DisposableBean {
+
+    public static final String HEALTHY_REPLICAS_GAUGE = "employees.datasource.replicas.healthy";
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Value("${employees.datasource.replica-check-timeout-s:1}")
+    private int replicaCheckTimeout;
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${employees.datasource.replica-urls}") List<String> replicaUrls,
+            @Value("${employees.datasource.replica-connection-timeout-ms:1000}") long replicaConnectionTimeout,
+            @Value("${employees.datasource.read-your-writes:true}") boolean readYourWrites) {
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl());
+        primary.setPoolName("primary");
+        pools.add(primary);
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (String replicaUrl : replicaUrls) {
+            HikariDataSource replica = pool(properties, environment, replicaUrl);
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setConnectionTimeout(replicaConnectionTimeout);
+            pools.add(replica);
+            replicas.add(replica);
+        }
+        routingDataSource = new ReplicaRoutingDataSource(primary, replicas, readYourWrites);
+        meterRegistry.gauge(HEALTHY_REPLICAS_GAUGE, routingDataSource, ReplicaRoutingDataSource::getHealthyReplicas);
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Set the dialect before the entity manager factory takes the one of its vendor adapter.
+     */
+    @Bean
+    public static BeanPostProcessor replicaReadJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof LocalContainerEntityManagerFactoryBean) {
+                    ((LocalContainerEntityManagerFactoryBean) bean).setJpaDialect(new ReplicaReadJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Bring replicas that failed back once they answer again, and take out the ones that stopped answering.
+     */
+    @Scheduled(fixedDelayString = "${employees.datasource.replica-check-interval-ms:5000}")
+    public void checkReplicas() {
+        routingDataSource.checkReplicas(replicaCheckTimeout);
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+}
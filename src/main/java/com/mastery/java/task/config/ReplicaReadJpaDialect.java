@@ -0,0 +1,56 @@
+package com.mastery.java.task.config;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+
+/**
+ * Sessions of read-only transactions, which read from the replicas, only get from the second-level
+ * and query caches and never put into them: a lagging replica would put back an employee
+ * that a write on the primary has just evicted, and the stale copy would outlive the lag.
+ *
+ * @author Sergey Tsynin
+ */
+public class ReplicaReadJpaDialect extends HibernateJpaDialect {
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+        Session session = entityManager.unwrap(Session.class);
+        CacheMode previousCacheMode = session.getCacheMode();
+        session.setCacheMode(CacheMode.GET);
+        return new ReplicaReadData(transactionData, session, previousCacheMode);
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaReadData) {
+            ReplicaReadData replicaRead = (ReplicaReadData) transactionData;
+            replicaRead.session.setCacheMode(replicaRead.previousCacheMode);
+            transactionData = replicaRead.transactionData;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    private static final class ReplicaReadData {
+
+        private final Object transactionData;
+        private final Session session;
+        private final CacheMode previousCacheMode;
+
+        private ReplicaReadData(Object transactionData, Session session, CacheMode previousCacheMode) {
+            this.transactionData = transactionData;
+            this.session = session;
+            this.previousCacheMode = previousCacheMode;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.mastery.java.task.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Hands out connections of read-only transactions from the replicas, round-robin over the healthy ones,
+ * and all other connections from the primary. A replica that fails to give a connection or
+ * a health check is skipped until a health check succeeds again; without healthy replicas
+ * reads go to the primary.
+ * All reads of an HTTP request go to the same replica while it is healthy, so that a response is built
+ * from a single point in time, the change number of its ETag included.
+ * With read-your-writes, an HTTP request that got a primary connection reads from the primary
+ * for the rest of the request, so it sees its own writes whatever the replication lag.
+ * Must be wrapped in a LazyConnectionDataSourceProxy, since the transaction is marked
+ * read-only only after its connection was requested.
+ *
+ * @author Sergey Tsynin
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String PRIMARY_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".PRIMARY";
+
+    private static final String REPLICA_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".REPLICA";
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final boolean readYourWrites;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary        data source of writes.
+     * @param replicas       data sources of read-only transactions.
+     * @param readYourWrites true to keep an HTTP request on the primary once it used it.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, boolean readYourWrites) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).collect(Collectors.toList());
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Check every replica, bringing back the ones that answer again.
+     *
+     * @param timeoutSeconds how long to wait for a replica to answer.
+     */
+    public void checkReplicas(int timeoutSeconds) {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(timeoutSeconds)) {
+                    replica.markUp();
+                } else {
+                    replica.markDown(new SQLException("Connection is not valid"));
+                }
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+    }
+
+    /**
+     * @return number of replicas that take reads now.
+     */
+    public int getHealthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy.get()).count();
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || usedPrimaryInRequest()) {
+            return primaryConnection(source);
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Replica requestReplica = request == null ? null
+                : (Replica) request.getAttribute(REPLICA_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (requestReplica != null && requestReplica.healthy.get()) {
+            try {
+                return source.getConnection(requestReplica.dataSource);
+            } catch (SQLException e) {
+                requestReplica.markDown(e);
+            }
+        }
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy.get()) {
+                try {
+                    Connection connection = source.getConnection(replica.dataSource);
+                    if (request != null) {
+                        request.setAttribute(REPLICA_ATTRIBUTE, replica, RequestAttributes.SCOPE_REQUEST);
+                    }
+                    return connection;
+                } catch (SQLException e) {
+                    replica.markDown(e);
+                }
+            }
+        }
+        LOGGER.debug("No healthy replica, reading from the primary");
+        return source.getConnection(primary);
+    }
+
+    private Connection primaryConnection(ConnectionSource source) throws SQLException {
+        if (readYourWrites) {
+            RequestAttributes request = RequestContextHolder.getRequestAttributes();
+            if (request != null) {
+                request.setAttribute(PRIMARY_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+        return source.getConnection(primary);
+    }
+
+    private boolean usedPrimaryInRequest() {
+        if (!readYourWrites) {
+            return false;
+        }
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request != null && request.getAttribute(PRIMARY_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+
+        Connection getConnection(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+
+        private final DataSource dataSource;
+        private final AtomicBoolean healthy = new AtomicBoolean(true);
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void markDown(SQLException e) {
+            if (healthy.compareAndSet(true, false)) {
+                LOGGER.warn("Replica {} is down, reads go to the other ones", dataSource, e);
+            }
+        }
+
+        private void markUp() {
+            if (healthy.compareAndSet(false, true)) {
+                LOGGER.info("Replica {} is back", dataSource);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mastery.java.task.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs @Scheduled maintenance tasks, such as the employees count recount.
+ *
+ * @author Sergey Tsynin
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,6 +1,7 @@
 package com.mastery.java.task.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -21,13 +22,20 @@ import java.util.List;
 import static org.springframework.http.HttpMethod.*;
 
 /**
+ * API docs built on start by scanning the controllers.
+ * With springfox.documentation.enabled=false the ones generated by the build are served instead,
+ * see StaticApiDocsConfig.
+ *
  * @author Sergey Tsynin
  */
 @Configuration
+@ConditionalOnProperty(name = SpringFoxConfig.ENABLED, havingValue = "true", matchIfMissing = true)
 @EnableSwagger2
 @Import(BeanValidatorPluginsConfiguration.class)
 public class SpringFoxConfig {
 
+    static final String ENABLED = "springfox.documentation.enabled";
+
     @Value("${application-description}")
     String description;
 
@@ -0,0 +1,56 @@
+package com.mastery.java.task.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.jms.annotation.JmsListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Startup-optimized mode.
+ * With spring.main.lazy-initialization=true a bean is created when it is first used, except for
+ * the controllers: they and everything they need, down to the database, are still created on start,
+ * so that the first request to the API does not pay for them. Beans with @JmsListener or @Scheduled
+ * methods are created on start as well, since nothing would use them otherwise. So are lifecycle beans,
+ * such as the reactive server, which the context starts whatever the setting.
+ * A training run, with employees.startup.exit-after-start=true, stops as soon as the application
+ * has started. It only loads the classes of a start for the class-data-sharing archive of the image.
+ *
+ * @author Sergey Tsynin
+ */
+@Configuration
+public class StartupConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupConfig.class);
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (AnnotatedElementUtils.hasAnnotation(beanType, Controller.class) || hasListenerMethods(beanType));
+    }
+
+    private static boolean hasListenerMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType, (ReflectionUtils.MethodFilter) method ->
+                AnnotatedElementUtils.hasAnnotation(method, JmsListener.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)).isEmpty();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "employees.startup.exit-after-start", havingValue = "true")
+    static ApplicationListener<ApplicationStartedEvent> exitAfterStart() {
+        return event -> {
+            LOGGER.info("Training run is over, exiting");
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.mastery.java.task.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import static org.springframework.web.servlet.function.RequestPredicates.GET;
+
+/**
+ * Serves the Swagger spec generated by the build (see ApiDocsGenerator) at the springfox path,
+ * so the controllers are not scanned on every start.
+ *
+ * @author Sergey Tsynin
+ */
+@Configuration
+@ConditionalOnProperty(name = SpringFoxConfig.ENABLED, havingValue = "false")
+public class StaticApiDocsConfig {
+
+    static final String API_DOCS_PATH = "/v2/api-docs";
+
+    static final String API_DOCS_RESOURCE = "api-docs/swagger.json";
+
+    @Bean
+    public RouterFunction<ServerResponse> staticApiDocs() {
+        Resource apiDocs = new ClassPathResource(API_DOCS_RESOURCE);
+        if (!apiDocs.exists()) {
+            throw new IllegalStateException(API_DOCS_RESOURCE + " was not generated by the build");
+        }
+        return RouterFunctions.route(GET(API_DOCS_PATH),
+                request -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(apiDocs));
+    }
+}
@@ -0,0 +1,91 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.dto.Employee;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceUnit;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the second-level cache consistent with employees written past Hibernate, by {@link EmployeeJdbcRepository},
+ * the way Hibernate does for its own writes: the written employees are soft-locked in the entity region and
+ * the EMPLOYEE table is marked as being written until the transaction completes.
+ * A locked employee is neither read from nor put into the cache by sessions that started before the lock
+ * timed out, so a reader that loaded the old row before the commit cannot put it back after it.
+ * Queries over the table cached before the commit are stale after it.
+ * Writes through JPA keep the cache consistent by themselves.
+ *
+ * @author Sergey Tsynin
+ */
+@Component
+public class EmployeeEntityCache {
+
+    @PersistenceUnit
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Lock the employees and all cached employee queries until the current transaction completes.
+     * Call in the writing transaction, after the write.
+     *
+     * @param employeeIds ids of changed or deleted employees.
+     */
+    public void lock(Collection<Integer> employeeIds) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        EntityPersister persister = sessionFactory.getMetamodel().entityPersister(Employee.class);
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        SharedSessionContractImplementor session = currentSession();
+        List<Object> keys = new ArrayList<>(employeeIds.size());
+        List<SoftLock> locks = new ArrayList<>(employeeIds.size());
+        if (cacheAccess != null) {
+            for (Integer employeeId : employeeIds) {
+                Object key = cacheAccess.generateCacheKey(employeeId, persister, sessionFactory, null);
+                keys.add(key);
+                locks.add(cacheAccess.lockItem(session, key, null));
+            }
+        }
+        TimestampsCache timestampsCache = sessionFactory.getCache().getTimestampsCache();
+        Serializable[] spaces = persister.getQuerySpaces();
+        timestampsCache.preInvalidate(spaces, session);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = 0; i < keys.size(); i++) {
+                    cacheAccess.unlockItem(session, keys.get(i), locks.get(i));
+                }
+                timestampsCache.invalidate(spaces, session);
+            }
+        });
+    }
+
+    /**
+     * Lock all cached employee queries until the current transaction completes,
+     * such as when new employees are inserted. Call in the writing transaction.
+     */
+    public void lockQueries() {
+        lock(List.of());
+    }
+
+    private SharedSessionContractImplementor currentSession() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Employees written past Hibernate must be locked in their transaction");
+        }
+        return entityManager.unwrap(SharedSessionContractImplementor.class);
+    }
+}
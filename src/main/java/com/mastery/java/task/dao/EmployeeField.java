@@ -0,0 +1,68 @@
+package com.mastery.java.task.dao;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Employee fields a client may ask for instead of the whole employee.
+ *
+ * @author Sergey Tsynin
+ */
+public enum EmployeeField {
+    EMPLOYEE_ID("employeeId", "id"),
+    FIRST_NAME("firstName", "firstName"),
+    LAST_NAME("lastName", "lastName"),
+    DEPARTMENT_ID("departmentId", "departmentId"),
+    JOB_TITLE("jobTitle", "jobTitle"),
+    GENDER("gender", "gender"),
+    DATE_OF_BIRTH("dateOfBirth", "dateOfBirth"),
+    VERSION("version", "version");
+
+    private final String parameterName;
+    private final String attributeName;
+
+    EmployeeField(String parameterName, String attributeName) {
+        this.parameterName = parameterName;
+        this.attributeName = attributeName;
+    }
+
+    /**
+     * @return field name in requests and responses, also the alias of the selected column.
+     */
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * Parse fields parameter in the form of "field1,field2,...".
+     *
+     * @param fields fields parameter.
+     * @return requested fields in the order of the employee fields.
+     * @throws IllegalArgumentException if a field is unknown or no field is given.
+     */
+    public static Set<EmployeeField> parse(String fields) {
+        Set<EmployeeField> result = EnumSet.noneOf(EmployeeField.class);
+        for (String parameterName : fields.split(",")) {
+            if (!parameterName.isBlank()) {
+                result.add(fromParameterName(parameterName.trim()));
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("No fields were requested");
+        }
+        return result;
+    }
+
+    static EmployeeField fromParameterName(String parameterName) {
+        return Arrays.stream(values())
+                .filter(field -> field.parameterName.equals(parameterName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        String.format("Field '%s' is not supported", parameterName)));
+    }
+}
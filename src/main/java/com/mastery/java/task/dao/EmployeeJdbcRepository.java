@@ -0,0 +1,208 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.EmployeeHeadcount;
+import com.mastery.java.task.dto.Gender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.jdbc.core.SqlTypeValue;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Set-based writes through the named-parameter statements of sql.properties,
+ * for the cases where going through JPA one entity at a time is too slow.
+ *
+ * @author Sergey Tsynin
+ */
+@Repository
+@PropertySource("classpath:sql.properties")
+public class EmployeeJdbcRepository {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${sqlGetEmployeeVersion}")
+    private String sqlGetEmployeeVersion;
+
+    @Value("${sqlGetEmployeesChangeNumber}")
+    private String sqlGetEmployeesChangeNumber;
+
+    @Value("${sqlGetEmployeeHeadcounts}")
+    private String sqlGetEmployeeHeadcounts;
+
+    @Value("${sqlCreateEmployees}")
+    private String sqlCreateEmployees;
+
+    @Value("${sqlPatchEmployee}")
+    private String sqlPatchEmployee;
+
+    @Value("${sqlDeleteEmployeeById}")
+    private String sqlDeleteEmployeeById;
+
+    @Value("${sqlDeleteEmployeesByIds}")
+    private String sqlDeleteEmployeesByIds;
+
+    @Value("${sqlDeleteEmployeesByDepartment}")
+    private String sqlDeleteEmployeesByDepartment;
+
+    /**
+     * Read the version of the employee without loading the entity.
+     *
+     * @param employeeId employee Id.
+     * @return employee version, empty if there is no such employee.
+     */
+    public Optional<Integer> findVersion(Integer employeeId) {
+        return jdbcTemplate.queryForList(sqlGetEmployeeVersion,
+                new MapSqlParameterSource("EMPLOYEE_ID", employeeId), Integer.class).stream().findFirst();
+    }
+
+    /**
+     * Read the change number of the EMPLOYEE table, moved by the EMPLOYEE_CHANGES trigger
+     * with every statement that writes employees.
+     *
+     * @return change number.
+     */
+    public long findChangeNumber() {
+        return jdbcTemplate.getJdbcTemplate().queryForObject(sqlGetEmployeesChangeNumber, Long.class);
+    }
+
+    /**
+     * Read the headcounts maintained by the EMPLOYEE_AGGREGATE triggers,
+     * one row per department, gender and year of birth.
+     *
+     * @return employee headcounts.
+     */
+    public List<EmployeeHeadcount> findHeadcounts() {
+        return jdbcTemplate.getJdbcTemplate().query(sqlGetEmployeeHeadcounts, (resultSet, rowNum) -> {
+            String gender = resultSet.getString("GENDER");
+            return new EmployeeHeadcount(
+                    resultSet.getObject("DEPARTMENT_ID", Integer.class),
+                    gender == null ? null : Gender.valueOf(gender),
+                    resultSet.getObject("BIRTH_YEAR", Integer.class),
+                    resultSet.getLong("HEADCOUNT"));
+        });
+    }
+
+    /**
+     * Insert employees with a single statement, the columns passed as arrays, so the statement triggers
+     * of EMPLOYEE fire once for all of them rather than once per employee as with a JDBC batch.
+     *
+     * @param employees employees to insert.
+     * @return generated employee ids in the order of employees.
+     */
+    public List<Integer> createEmployees(List<Employee> employees) {
+        int size = employees.size();
+        Object[] firstNames = new Object[size];
+        Object[] lastNames = new Object[size];
+        Object[] departmentIds = new Object[size];
+        Object[] jobTitles = new Object[size];
+        Object[] genders = new Object[size];
+        Object[] datesOfBirth = new Object[size];
+        for (int i = 0; i < size; i++) {
+            Employee employee = employees.get(i);
+            firstNames[i] = employee.getFirstName();
+            lastNames[i] = employee.getLastName();
+            departmentIds[i] = employee.getDepartmentId();
+            jobTitles[i] = employee.getJobTitle();
+            genders[i] = employee.getGender() == null ? null : employee.getGender().name();
+            datesOfBirth[i] = employee.getDateOfBirth() == null ? null : Date.valueOf(employee.getDateOfBirth());
+        }
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("FIRST_NAMES", array("varchar", firstNames), Types.ARRAY)
+                .addValue("LAST_NAMES", array("varchar", lastNames), Types.ARRAY)
+                .addValue("DEPARTMENT_IDS", array("integer", departmentIds), Types.ARRAY)
+                .addValue("JOB_TITLES", array("varchar", jobTitles), Types.ARRAY)
+                .addValue("GENDERS", array("varchar", genders), Types.ARRAY)
+                .addValue("DATES_OF_BIRTH", array("date", datesOfBirth), Types.ARRAY);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(sqlCreateEmployees, parameters, keyHolder);
+
+        List<Integer> employeeIds = new ArrayList<>(size);
+        for (Map<String, Object> keys : keyHolder.getKeyList()) {
+            employeeIds.add(((Number) keys.get("EMPLOYEE_ID")).intValue());
+        }
+        return employeeIds;
+    }
+
+    /**
+     * Update the non-null fields of the employee with a single statement.
+     * If the patch has a version, the employee is updated only if it still has this version.
+     *
+     * @param patch employeeId, fields to change and optional expected version.
+     * @return number of updated employees, 0 if there was no such employee or its version differs.
+     */
+    public int patchEmployee(Employee patch) {
+        return jdbcTemplate.update(sqlPatchEmployee, employeeParameters(patch));
+    }
+
+    /**
+     * Delete employee with a single statement.
+     *
+     * @param employeeId employee Id.
+     * @return number of deleted employees, 0 if there was no such employee.
+     */
+    public int deleteEmployee(Integer employeeId) {
+        return jdbcTemplate.update(sqlDeleteEmployeeById,
+                new MapSqlParameterSource("EMPLOYEE_ID", employeeId));
+    }
+
+    /**
+     * Delete employees with the given ids with a single statement.
+     *
+     * @param employeeIds employee ids.
+     * @return ids of deleted employees.
+     */
+    public List<Integer> deleteEmployees(Collection<Integer> employeeIds) {
+        return jdbcTemplate.queryForList(sqlDeleteEmployeesByIds,
+                new MapSqlParameterSource("EMPLOYEE_IDS", employeeIds), Integer.class);
+    }
+
+    /**
+     * Delete all employees of the department with a single statement.
+     *
+     * @param departmentId department Id.
+     * @return ids of deleted employees.
+     */
+    public List<Integer> deleteEmployeesByDepartment(Integer departmentId) {
+        return jdbcTemplate.queryForList(sqlDeleteEmployeesByDepartment,
+                new MapSqlParameterSource("DEPARTMENT_ID", departmentId), Integer.class);
+    }
+
+    private SqlParameterSource employeeParameters(Employee employee) {
+        return new MapSqlParameterSource()
+                .addValue("EMPLOYEE_ID", employee.getEmployeeId(), Types.INTEGER)
+                .addValue("FIRST_NAME", employee.getFirstName(), Types.VARCHAR)
+                .addValue("LAST_NAME", employee.getLastName(), Types.VARCHAR)
+                .addValue("DEPARTMENT_ID", employee.getDepartmentId(), Types.INTEGER)
+                .addValue("JOB_TITLE", employee.getJobTitle(), Types.VARCHAR)
+                .addValue("GENDER", employee.getGender() == null ? null : employee.getGender().name(), Types.VARCHAR)
+                .addValue("DATE_OF_BIRTH", employee.getDateOfBirth(), Types.DATE)
+                .addValue("VERSION", employee.getVersion(), Types.INTEGER);
+    }
+
+    private static SqlTypeValue array(String elementType, Object[] elements) {
+        return new AbstractSqlTypeValue() {
+            @Override
+            protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+                return connection.createArrayOf(elementType, elements);
+            }
+        };
+    }
+}
@@ -2,15 +2,79 @@ package com.mastery.java.task.dao;
 
 import com.mastery.java.task.dto.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.mastery.java.task.config.HibernateCacheConfig.EMPLOYEE_QUERY_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 /**
  * @author Sergey Tsynin
  */
 @Repository
-public interface EmployeeJpaRepository extends JpaRepository<Employee, Integer> {
+public interface EmployeeJpaRepository extends JpaRepository<Employee, Integer>, EmployeeKeysetRepository {
 
+    @QueryHints({
+            @QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = EMPLOYEE_QUERY_REGION)
+    })
     List<Employee> findByFirstNameContainsAndLastNameContains(String firstName, String lastName);
+
+    /**
+     * Find the employee bypassing the second-level cache, for the loader of the employees cache,
+     * so that an employee by id is cached once.
+     *
+     * @param employeeId employee Id.
+     * @return employee, empty if there is no such employee.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("select e from Employee e where e.id = :employeeId")
+    Optional<Employee> findUncachedById(@Param("employeeId") Integer employeeId);
+
+    /**
+     * Count employees on the primary rather than on a read replica,
+     * since the count corrects the in-memory counter of this application's writes.
+     *
+     * @return the number of employees.
+     */
+    @Override
+    @Transactional
+    long count();
+
+    /**
+     * Stream all employees through a server-side cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     * Streamed employees bypass the second-level cache, so an export does not evict the hot ones.
+     *
+     * @return employees stream ordered by id.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    /**
+     * Stream ids and names of all employees through a server-side cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of {id, firstName, lastName} rows.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select e.id, e.firstName, e.lastName from Employee e")
+    Stream<Object[]> streamNames();
 }
@@ -0,0 +1,75 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.dto.Employee;
+
+import javax.persistence.Tuple;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Keyset (seek) pagination and field projections over the EMPLOYEE table.
+ * Projections select only the requested columns into tuples, no entity gets into the persistence context.
+ *
+ * @author Sergey Tsynin
+ */
+public interface EmployeeKeysetRepository {
+
+    /**
+     * Get employees whose names contain the given strings, ordered by the sort key
+     * and employee id, starting right after the given keyset position.
+     *
+     * @param firstName  part of employee firstname, empty for any.
+     * @param lastName   part of employee lastname, empty for any.
+     * @param sort       sort order.
+     * @param afterValue sort key value of the last seen employee, null for the first page.
+     * @param afterId    id of the last seen employee, null for the first page.
+     * @param limit      maximum number of employees to return.
+     * @return employees list.
+     */
+    List<Employee> findPage(String firstName, String lastName,
+                            EmployeeSort sort, Object afterValue, Integer afterId, int limit);
+
+    /**
+     * Get employees with the given ids, ordered and paged the same way as {@link #findPage}.
+     *
+     * @param employeeIds employee ids to choose from.
+     * @param sort        sort order.
+     * @param afterValue  sort key value of the last seen employee, null for the first page.
+     * @param afterId     id of the last seen employee, null for the first page.
+     * @param limit       maximum number of employees to return.
+     * @return employees list.
+     */
+    List<Employee> findPageByIds(Collection<Integer> employeeIds,
+                                 EmployeeSort sort, Object afterValue, Integer afterId, int limit);
+
+    /**
+     * Same as {@link #findPage}, selecting only the given fields.
+     * The employee id and the sort key are selected as well, to build the cursor.
+     *
+     * @param fields fields to select, tuple aliases are their parameter names.
+     * @return tuples of the selected fields.
+     */
+    List<Tuple> findFieldsPage(String firstName, String lastName, Set<EmployeeField> fields,
+                               EmployeeSort sort, Object afterValue, Integer afterId, int limit);
+
+    /**
+     * Same as {@link #findPageByIds}, selecting only the given fields.
+     * The employee id and the sort key are selected as well, to build the cursor.
+     *
+     * @param fields fields to select, tuple aliases are their parameter names.
+     * @return tuples of the selected fields.
+     */
+    List<Tuple> findFieldsPageByIds(Collection<Integer> employeeIds, Set<EmployeeField> fields,
+                                    EmployeeSort sort, Object afterValue, Integer afterId, int limit);
+
+    /**
+     * Get the given fields of the employee. The version is selected as well, for the ETag.
+     *
+     * @param employeeId employee id.
+     * @param fields     fields to select, tuple aliases are their parameter names.
+     * @return tuple of the selected fields, empty if there is no such employee.
+     */
+    Optional<Tuple> findFieldsById(Integer employeeId, Set<EmployeeField> fields);
+}
@@ -0,0 +1,196 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.dto.Employee;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import static com.mastery.java.task.config.HibernateCacheConfig.EMPLOYEE_QUERY_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+/**
+ * Criteria based implementation of the keyset pagination and projection fragment.
+ *
+ * @author Sergey Tsynin
+ */
+public class EmployeeKeysetRepositoryImpl implements EmployeeKeysetRepository {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Employee> findPage(String firstName, String lastName,
+                                   EmployeeSort sort, Object afterValue, Integer afterId, int limit) {
+        CriteriaQuery<Employee> query = entityManager.getCriteriaBuilder().createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+        query.select(employee);
+        return findPage(query, employee, byName(firstName, lastName), sort, afterValue, afterId, limit, true);
+    }
+
+    @Override
+    public List<Employee> findPageByIds(Collection<Integer> employeeIds,
+                                        EmployeeSort sort, Object afterValue, Integer afterId, int limit) {
+        if (employeeIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CriteriaQuery<Employee> query = entityManager.getCriteriaBuilder().createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+        query.select(employee);
+        return findPage(query, employee, byIds(employeeIds), sort, afterValue, afterId, limit, false);
+    }
+
+    @Override
+    public List<Tuple> findFieldsPage(String firstName, String lastName, Set<EmployeeField> fields,
+                                      EmployeeSort sort, Object afterValue, Integer afterId, int limit) {
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(selections(employee, fields, EmployeeField.EMPLOYEE_ID, sortField(sort)));
+        return findPage(query, employee, byName(firstName, lastName), sort, afterValue, afterId, limit, true);
+    }
+
+    @Override
+    public List<Tuple> findFieldsPageByIds(Collection<Integer> employeeIds, Set<EmployeeField> fields,
+                                           EmployeeSort sort, Object afterValue, Integer afterId, int limit) {
+        if (employeeIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(selections(employee, fields, EmployeeField.EMPLOYEE_ID, sortField(sort)));
+        return findPage(query, employee, byIds(employeeIds), sort, afterValue, afterId, limit, false);
+    }
+
+    @Override
+    public Optional<Tuple> findFieldsById(Integer employeeId, Set<EmployeeField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(selections(employee, fields, EmployeeField.VERSION))
+                .where(cb.equal(employee.get("id"), employeeId));
+        return entityManager.createQuery(query).getResultStream().findFirst();
+    }
+
+    private static BiFunction<CriteriaBuilder, Root<Employee>, List<Predicate>> byName(String firstName,
+                                                                                      String lastName) {
+        return (cb, employee) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (!firstName.isEmpty()) {
+                predicates.add(cb.like(employee.get("firstName"), containsPattern(firstName), LIKE_ESCAPE));
+            }
+            if (!lastName.isEmpty()) {
+                predicates.add(cb.like(employee.get("lastName"), containsPattern(lastName), LIKE_ESCAPE));
+            }
+            return predicates;
+        };
+    }
+
+    private static BiFunction<CriteriaBuilder, Root<Employee>, List<Predicate>> byIds(
+            Collection<Integer> employeeIds) {
+        return (cb, employee) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(employee.get("id").in(employeeIds));
+            return predicates;
+        };
+    }
+
+    /**
+     * @return columns of the requested and the required fields, aliased by the field parameter names.
+     */
+    private static List<Selection<?>> selections(Root<Employee> employee, Set<EmployeeField> fields,
+                                                 EmployeeField... required) {
+        Set<EmployeeField> selected = EnumSet.copyOf(fields);
+        selected.addAll(List.of(required));
+        return selected.stream()
+                .map(field -> employee.get(field.getAttributeName()).alias(field.getParameterName()))
+                .collect(Collectors.toList());
+    }
+
+    private static EmployeeField sortField(EmployeeSort sort) {
+        return EmployeeField.fromParameterName(sort.getField().getParameterName());
+    }
+
+    /**
+     * @param query     query with the selection set.
+     * @param cacheable true to keep the page in the query cache, false for filters unlikely to repeat.
+     */
+    private <T> List<T> findPage(CriteriaQuery<T> query, Root<Employee> employee,
+                                 BiFunction<CriteriaBuilder, Root<Employee>, List<Predicate>> filter,
+                                 EmployeeSort sort, Object afterValue, Integer afterId, int limit,
+                                 boolean cacheable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        Path<Integer> id = employee.get("id");
+
+        List<Predicate> predicates = filter.apply(cb, employee);
+        if (afterId != null) {
+            predicates.add(afterKeyset(cb, employee, id, sort, afterValue, afterId));
+        }
+
+        if (sort.getField() == EmployeeSort.Field.EMPLOYEE_ID) {
+            query.orderBy(sort.isAscending() ? cb.asc(id) : cb.desc(id));
+        } else {
+            Path<Object> key = employee.get(sort.getField().getAttributeName());
+            query.orderBy(sort.isAscending()
+                    ? List.of(cb.asc(key), cb.asc(id))
+                    : List.of(cb.desc(key), cb.desc(id)));
+        }
+
+        return entityManager.createQuery(query.where(predicates.toArray(new Predicate[0])))
+                .setMaxResults(limit)
+                .setHint(HINT_CACHEABLE, cacheable)
+                .setHint(HINT_CACHE_REGION, EMPLOYEE_QUERY_REGION)
+                .getResultList();
+    }
+
+    /**
+     * Row value comparison (key, id) > (afterValue, afterId), spelled out
+     * for databases and JPA providers without row constructor support.
+     * The redundant key >= afterValue is the range bound of the (key, id) index scan,
+     * the planner cannot take one from the OR alone and would read the index from its start.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate afterKeyset(CriteriaBuilder cb, Root<Employee> employee, Path<Integer> id,
+                                  EmployeeSort sort, Object afterValue, Integer afterId) {
+        if (sort.getField() == EmployeeSort.Field.EMPLOYEE_ID) {
+            return sort.isAscending() ? cb.greaterThan(id, afterId) : cb.lessThan(id, afterId);
+        }
+        Expression key = employee.get(sort.getField().getAttributeName());
+        Comparable value = (Comparable) afterValue;
+        if (sort.isAscending()) {
+            return cb.and(cb.greaterThanOrEqualTo(key, value),
+                    cb.or(cb.greaterThan(key, value),
+                            cb.and(cb.equal(key, value), cb.greaterThan(id, afterId))));
+        }
+        return cb.and(cb.lessThanOrEqualTo(key, value),
+                cb.or(cb.lessThan(key, value),
+                        cb.and(cb.equal(key, value), cb.lessThan(id, afterId))));
+    }
+
+    /**
+     * @return LIKE pattern matching strings that contain the value, with backslash as escape character.
+     */
+    static String containsPattern(String value) {
+        return "%" + value
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
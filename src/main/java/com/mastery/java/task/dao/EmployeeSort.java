@@ -0,0 +1,105 @@
+package com.mastery.java.task.dao;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Whitelisted sort order for keyset pagination of employees.
+ * Ties are always broken by the employee id in the same direction.
+ *
+ * @author Sergey Tsynin
+ */
+public final class EmployeeSort {
+
+    public static final EmployeeSort DEFAULT = new EmployeeSort(Field.EMPLOYEE_ID, true);
+
+    /**
+     * Columns allowed as a keyset sort key. Only NOT NULL columns are listed,
+     * so that the keyset comparison never has to deal with NULL ordering.
+     */
+    public enum Field {
+        EMPLOYEE_ID("employeeId", "id"),
+        FIRST_NAME("firstName", "firstName"),
+        LAST_NAME("lastName", "lastName");
+
+        private final String parameterName;
+        private final String attributeName;
+
+        Field(String parameterName, String attributeName) {
+            this.parameterName = parameterName;
+            this.attributeName = attributeName;
+        }
+
+        public String getParameterName() {
+            return parameterName;
+        }
+
+        public String getAttributeName() {
+            return attributeName;
+        }
+
+        static Field fromParameterName(String parameterName) {
+            return Arrays.stream(values())
+                    .filter(field -> field.parameterName.equals(parameterName))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(
+                            String.format("Sorting by '%s' is not supported", parameterName)));
+        }
+    }
+
+    private final Field field;
+    private final boolean ascending;
+
+    public EmployeeSort(Field field, boolean ascending) {
+        this.field = field;
+        this.ascending = ascending;
+    }
+
+    /**
+     * Parse sort parameter in the form of "field" or "field,asc|desc".
+     *
+     * @param sort sort parameter.
+     * @return sort order.
+     * @throws IllegalArgumentException if the field is not whitelisted or the direction is unknown.
+     */
+    public static EmployeeSort parse(String sort) {
+        String[] parts = sort.split(",", -1);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException(String.format("Wrong sort parameter '%s'", sort));
+        }
+        Field field = Field.fromParameterName(parts[0].trim());
+        if (parts.length == 1 || "asc".equalsIgnoreCase(parts[1].trim())) {
+            return new EmployeeSort(field, true);
+        }
+        if ("desc".equalsIgnoreCase(parts[1].trim())) {
+            return new EmployeeSort(field, false);
+        }
+        throw new IllegalArgumentException(String.format("Wrong sort direction '%s'", parts[1]));
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Override
+    public String toString() {
+        return field.getParameterName() + (ascending ? ",asc" : ",desc");
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EmployeeSort that = (EmployeeSort) o;
+        return ascending == that.ascending && field == that.field;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, ascending);
+    }
+}
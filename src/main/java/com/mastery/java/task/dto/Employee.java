@@ -6,9 +6,12 @@ import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateSerializer;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.time.LocalDate;
 import java.util.Objects;
 
@@ -19,8 +22,15 @@ import java.util.Objects;
 @ApiModel(description = "Represents an Employee in the system")
 @Entity
 @Table(name = "EMPLOYEE")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
 public class Employee {
 
+    /**
+     * Region of the second-level cache holding employees.
+     */
+    public static final String CACHE_REGION = "employee";
+
     @Id
     @Column(name = "employee_id")
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,16 +38,19 @@ public class Employee {
     private Integer id;
 
     @NotNull(message = "Employee firstname cannot be empty")
+    @Size(max = 128, message = "Employee firstname cannot be longer than 128 characters")
     @ApiModelProperty(example = "Peter", required = true)
     private String firstName;
 
     @NotNull(message = "Employee lastname cannot be empty")
+    @Size(max = 128, message = "Employee lastname cannot be longer than 128 characters")
     @ApiModelProperty(example = "Pan", required = true)
     private String lastName;
 
     @ApiModelProperty(example = "42")
     private Integer departmentId;
 
+    @Size(max = 128, message = "Employee job title cannot be longer than 128 characters")
     @ApiModelProperty(example = "Pilot")
     private String jobTitle;
 
@@ -51,12 +64,33 @@ public class Employee {
     @ApiModelProperty(notes = "The employee must be over 18 years old")
     private LocalDate dateOfBirth;
 
+    @Version
+    @ApiModelProperty(example = "0",
+            notes = "Changes with every update. Send it back with an update to make it conditional")
+    private Integer version;
+
     /**
      * Constructor without arguments.
      */
     public Employee() {
     }
 
+    /**
+     * Copy constructor, for callers that must not share the instance.
+     *
+     * @param employee employee to copy.
+     */
+    public Employee(Employee employee) {
+        this.id = employee.id;
+        this.firstName = employee.firstName;
+        this.lastName = employee.lastName;
+        this.departmentId = employee.departmentId;
+        this.jobTitle = employee.jobTitle;
+        this.gender = employee.gender;
+        this.dateOfBirth = employee.dateOfBirth;
+        this.version = employee.version;
+    }
+
     public Integer getEmployeeId() {
         return id;
     }
@@ -113,6 +147,14 @@ public class Employee {
         this.dateOfBirth = dateOfBirth;
     }
 
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Employee {" +
@@ -123,6 +165,7 @@ public class Employee {
                 ", jobTitle='" + jobTitle + '\'' +
                 ", gender=" + gender +
                 ", dateOfBirth=" + dateOfBirth +
+                ", version=" + version +
                 '}';
     }
 
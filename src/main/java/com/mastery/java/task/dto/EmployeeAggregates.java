@@ -0,0 +1,52 @@
+package com.mastery.java.task.dto;
+
+import java.util.Map;
+
+/**
+ * Headcount of all employees, by department, by gender and by age band.
+ * Employees without a department, gender or date of birth are counted under {@link #UNKNOWN}.
+ *
+ * @author Sergey Tsynin
+ */
+public class EmployeeAggregates {
+
+    public static final String UNKNOWN = "unknown";
+
+    private final long total;
+
+    private final Map<String, Long> byDepartment;
+
+    private final Map<String, Long> byGender;
+
+    private final Map<String, Long> byAgeBand;
+
+    public EmployeeAggregates(long total, Map<String, Long> byDepartment,
+                              Map<String, Long> byGender, Map<String, Long> byAgeBand) {
+        this.total = total;
+        this.byDepartment = byDepartment;
+        this.byGender = byGender;
+        this.byAgeBand = byAgeBand;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @return headcount by department id.
+     */
+    public Map<String, Long> getByDepartment() {
+        return byDepartment;
+    }
+
+    public Map<String, Long> getByGender() {
+        return byGender;
+    }
+
+    /**
+     * @return headcount by age band as "from-to" or "from+" years.
+     */
+    public Map<String, Long> getByAgeBand() {
+        return byAgeBand;
+    }
+}
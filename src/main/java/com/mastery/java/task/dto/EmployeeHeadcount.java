@@ -0,0 +1,41 @@
+package com.mastery.java.task.dto;
+
+/**
+ * Number of employees with the same department, gender and year of birth,
+ * one row of the EMPLOYEE_AGGREGATE table. Any of the keys may be null.
+ *
+ * @author Sergey Tsynin
+ */
+public class EmployeeHeadcount {
+
+    private final Integer departmentId;
+
+    private final Gender gender;
+
+    private final Integer birthYear;
+
+    private final long headcount;
+
+    public EmployeeHeadcount(Integer departmentId, Gender gender, Integer birthYear, long headcount) {
+        this.departmentId = departmentId;
+        this.gender = gender;
+        this.birthYear = birthYear;
+        this.headcount = headcount;
+    }
+
+    public Integer getDepartmentId() {
+        return departmentId;
+    }
+
+    public Gender getGender() {
+        return gender;
+    }
+
+    public Integer getBirthYear() {
+        return birthYear;
+    }
+
+    public long getHeadcount() {
+        return headcount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mastery.java.task.dto;
+
+import java.util.List;
+
+/**
+ * One page of employees, whole or projected, and an opaque cursor pointing to the next one.
+ *
+ * @author Sergey Tsynin
+ */
+public class EmployeePage<T> {
+
+    private final List<T> employees;
+
+    private final String next;
+
+    public EmployeePage(List<T> employees, String next) {
+        this.employees = employees;
+        this.next = next;
+    }
+
+    public List<T> getEmployees() {
+        return employees;
+    }
+
+    /**
+     * @return cursor of the next page or null if this page is the last one.
+     */
+    public String getNext() {
+        return next;
+    }
+}
@@ -0,0 +1,61 @@
+package com.mastery.java.task.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import io.swagger.annotations.ApiModel;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Requested fields of an employee, serialized as an employee with only these fields.
+ *
+ * @author Sergey Tsynin
+ */
+@ApiModel(description = "Requested fields of an Employee")
+public class EmployeeProjection {
+
+    private final Map<String, Object> fields;
+
+    private final Integer version;
+
+    /**
+     * @param fields  values by field name, in the order they are serialized.
+     * @param version employee version, null if it was not read.
+     */
+    public EmployeeProjection(Map<String, Object> fields, Integer version) {
+        this.fields = fields;
+        this.version = version;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return employee version, for the ETag, whether it was requested or not.
+     */
+    @JsonIgnore
+    public Integer getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeProjection " + fields;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EmployeeProjection that = (EmployeeProjection) o;
+        return Objects.equals(fields, that.fields) && Objects.equals(version, that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(fields, version);
+    }
+}
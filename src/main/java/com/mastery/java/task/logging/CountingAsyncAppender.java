@@ -0,0 +1,47 @@
+package com.mastery.java.task.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous appender that counts the events it drops, per level.
+ * Events are dropped when the queue is below the discarding threshold (for levels up to INFO)
+ * or, with neverBlock, when it is full. The queue is checked right before the event is handed over,
+ * so under contention the counters may be off by a few events.
+ *
+ * @author Sergey Tsynin
+ */
+public class CountingAsyncAppender extends AsyncAppender {
+
+    static final List<Level> LEVELS = List.of(Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN, Level.ERROR);
+
+    private final Map<Level, LongAdder> dropped = new ConcurrentHashMap<>();
+
+    public CountingAsyncAppender() {
+        LEVELS.forEach(level -> dropped.put(level, new LongAdder()));
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remainingCapacity = getRemainingCapacity();
+        if ((remainingCapacity < getDiscardingThreshold() && isDiscardable(event))
+                || (remainingCapacity == 0 && isNeverBlock())) {
+            dropped.get(event.getLevel()).increment();
+        }
+        super.append(event);
+    }
+
+    /**
+     * @param level event level.
+     * @return number of dropped events of this level.
+     */
+    public long getDropped(Level level) {
+        return dropped.get(level).sum();
+    }
+}
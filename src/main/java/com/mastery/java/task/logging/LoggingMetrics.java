@@ -0,0 +1,53 @@
+package com.mastery.java.task.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes dropped events and queue depth of every {@link CountingAsyncAppender}
+ * as logback.events.dropped and logback.queue.size metrics.
+ *
+ * @author Sergey Tsynin
+ */
+@Component
+public class LoggingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext)) {
+            return;
+        }
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        for (Logger logger : context.getLoggerList()) {
+            for (Iterator<Appender<ILoggingEvent>> appenders = logger.iteratorForAppenders(); appenders.hasNext(); ) {
+                Appender<ILoggingEvent> appender = appenders.next();
+                if (appender instanceof CountingAsyncAppender) {
+                    bindTo(registry, (CountingAsyncAppender) appender);
+                }
+            }
+        }
+    }
+
+    private void bindTo(MeterRegistry registry, CountingAsyncAppender appender) {
+        CountingAsyncAppender.LEVELS.forEach(level ->
+                FunctionCounter.builder("logback.events.dropped", appender, a -> a.getDropped(level))
+                        .description("Number of log events dropped by an asynchronous appender")
+                        .tag("appender", appender.getName())
+                        .tag("level", level.toString().toLowerCase())
+                        .register(registry));
+        Gauge.builder("logback.queue.size", appender, CountingAsyncAppender::getNumberOfElementsInQueue)
+                .description("Number of log events waiting in the queue of an asynchronous appender")
+                .tag("appender", appender.getName())
+                .register(registry);
+    }
+}
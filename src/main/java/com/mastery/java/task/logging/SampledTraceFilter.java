@@ -0,0 +1,53 @@
+package com.mastery.java.task.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lets through only a sample of the " IN:" / "OUT:" tracing lines below WARN.
+ * The sampling decision of an HTTP request is taken once by {@link TraceSamplingInterceptor}
+ * and kept in the MDC, so a request is traced either completely or not at all.
+ * Lines logged outside of a request, such as by JMS listeners, are sampled one by one.
+ * Rejected lines are dropped before their message is formatted.
+ *
+ * @author Sergey Tsynin
+ */
+public class SampledTraceFilter extends TurboFilter {
+
+    public static final String MDC_KEY = "traced";
+
+    private static final String IN_PREFIX = " IN:";
+    private static final String OUT_PREFIX = "OUT:";
+
+    private double sampleRate = 1.0;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level,
+                              String format, Object[] params, Throwable t) {
+        if (format == null || level.isGreaterOrEqual(Level.WARN)
+                || !(format.startsWith(IN_PREFIX) || format.startsWith(OUT_PREFIX))) {
+            return FilterReply.NEUTRAL;
+        }
+        String traced = MDC.get(MDC_KEY);
+        boolean sampled = traced == null ? sample(sampleRate) : Boolean.parseBoolean(traced);
+        return sampled ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setSampleRate(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * @param sampleRate share of samples to take, from 0 to 1.
+     * @return true if this one should be taken.
+     */
+    static boolean sample(double sampleRate) {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+}
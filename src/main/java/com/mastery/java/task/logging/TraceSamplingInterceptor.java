@@ -0,0 +1,39 @@
+package com.mastery.java.task.logging;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Decides once per request whether its tracing lines are logged, see {@link SampledTraceFilter}.
+ *
+ * @author Sergey Tsynin
+ */
+@Component
+public class TraceSamplingInterceptor implements AsyncHandlerInterceptor {
+
+    @Value("${logging.trace.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        MDC.put(SampledTraceFilter.MDC_KEY, String.valueOf(SampledTraceFilter.sample(sampleRate)));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        MDC.remove(SampledTraceFilter.MDC_KEY);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        MDC.remove(SampledTraceFilter.MDC_KEY);
+    }
+}
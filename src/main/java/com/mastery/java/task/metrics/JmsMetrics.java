@@ -0,0 +1,55 @@
+package com.mastery.java.task.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Names of employee-queue metrics.
+ *
+ * @author Sergey Tsynin
+ */
+public final class JmsMetrics {
+
+    /**
+     * Time to hand a message over to the broker.
+     */
+    public static final String SEND_TIMER = "employees.jms.send";
+
+    /**
+     * Employees packed into each sent message.
+     */
+    public static final String SEND_EMPLOYEES_SUMMARY = "employees.jms.send.employees";
+
+    /**
+     * Employees whose message could not be sent by the async producer.
+     */
+    public static final String SEND_FAILED_COUNTER = "employees.jms.send.failed";
+
+    /**
+     * Time to save the employees of a message or of a batch of messages, tagged by consumer mode.
+     */
+    public static final String PROCESS_TIMER = "employees.jms.process";
+
+    /**
+     * Time from sending a message to saving its employee. Measured from the JMSTimestamp
+     * set by the producer, so clocks of producer and consumer hosts must be in sync.
+     */
+    public static final String LAG_TIMER = "employees.jms.lag";
+
+    private JmsMetrics() {
+    }
+
+    /**
+     * Record the lag of a message whose employee was just saved.
+     *
+     * @param meterRegistry meter registry.
+     * @param jmsTimestamp  JMSTimestamp of the message, 0 if the producer did not set it.
+     */
+    public static void recordLag(MeterRegistry meterRegistry, long jmsTimestamp) {
+        if (jmsTimestamp > 0) {
+            meterRegistry.timer(LAG_TIMER)
+                    .record(Math.max(0, System.currentTimeMillis() - jmsTimestamp), TimeUnit.MILLISECONDS);
+        }
+    }
+}
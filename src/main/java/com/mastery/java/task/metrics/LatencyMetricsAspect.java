@@ -0,0 +1,65 @@
+package com.mastery.java.task.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every call of EmployeeService and of the employee repositories,
+ * tagged with the class, the method and the exception class if the call failed.
+ * Percentile histograms are switched on by management.metrics.distribution.* properties.
+ *
+ * @author Sergey Tsynin
+ */
+@Aspect
+@Component
+public class LatencyMetricsAspect {
+
+    public static final String SERVICE_TIMER = "employees.service";
+    public static final String REPOSITORY_TIMER = "employees.repository";
+
+    private static final String NO_EXCEPTION = "none";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.mastery.java.task.service.EmployeeService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, "EmployeeService", joinPoint);
+    }
+
+    /**
+     * Spring Data repository is a JDK proxy, so its methods are matched by the proxy type,
+     * which also covers the methods inherited from JpaRepository.
+     */
+    @Around("this(com.mastery.java.task.dao.EmployeeJpaRepository) && !execution(* java.lang.Object.*(..))")
+    public Object timeJpaRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, "EmployeeJpaRepository", joinPoint);
+    }
+
+    @Around("execution(public * com.mastery.java.task.dao.EmployeeJdbcRepository.*(..))")
+    public Object timeJdbcRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(REPOSITORY_TIMER, "EmployeeJdbcRepository", joinPoint);
+    }
+
+    private Object time(String name, String className, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(name)
+                    .tag("class", className)
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(meterRegistry));
+        }
+    }
+}
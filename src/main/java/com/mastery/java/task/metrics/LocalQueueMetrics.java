@@ -0,0 +1,47 @@
+package com.mastery.java.task.metrics;
+
+/**
+ * Names of employee-queue metrics of the local transport.
+ *
+ * @author Sergey Tsynin
+ */
+public final class LocalQueueMetrics {
+
+    /**
+     * Time to write a batch of queued employees to the journal and force it to the disk.
+     */
+    public static final String JOURNAL_TIMER = "employees.queue.local.journal";
+
+    /**
+     * Employees written to the journal at once.
+     */
+    public static final String JOURNAL_EMPLOYEES_SUMMARY = "employees.queue.local.journal.employees";
+
+    /**
+     * Time to save a batch of journaled employees to the database.
+     */
+    public static final String COMMIT_TIMER = "employees.queue.local.commit";
+
+    /**
+     * Employees saved to the database at once.
+     */
+    public static final String COMMIT_EMPLOYEES_SUMMARY = "employees.queue.local.commit.employees";
+
+    /**
+     * Time from queueing an employee to saving it.
+     */
+    public static final String LAG_TIMER = "employees.queue.local.lag";
+
+    /**
+     * Employees rejected by the database, they are logged and skipped.
+     */
+    public static final String REJECTED_COUNTER = "employees.queue.local.rejected";
+
+    /**
+     * Employees queued and not saved yet.
+     */
+    public static final String PENDING_GAUGE = "employees.queue.local.pending";
+
+    private LocalQueueMetrics() {
+    }
+}
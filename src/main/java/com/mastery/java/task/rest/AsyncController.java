@@ -2,9 +2,11 @@ package com.mastery.java.task.rest;
 
 import com.mastery.java.task.dto.Employee;
 import com.mastery.java.task.service.JmsEmployeeService;
+import com.mastery.java.task.service.LocalEmployeeQueue;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,6 +14,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * @author Sergey Tsynin
@@ -30,17 +34,46 @@ public class AsyncController {
     @Autowired
     private JmsEmployeeService jmsService;
 
+    @Autowired(required = false)
+    private LocalEmployeeQueue localQueue;
+
     /**
      * Send into queue to create new employee record.
+     * With the local transport the employee is in the journal when this returns.
+     * With the async JMS producer the employee is only handed over, at most once.
      *
      * @param employee object.
      */
-    @ApiOperation(value = "Send into queue to create new employee record", tags = "async")
-    @ApiResponse(code = 400, message = "Validation error")
-    @PostMapping(consumes = {"application/json"})
+    @ApiOperation(value = "Send into queue to create new employee record", tags = "async",
+            notes = "With the async JMS producer 200 means the employee was accepted for sending, at most once: "
+                    + "it is lost if the send fails or the application stops before it was sent.")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Employee was queued or, with the async JMS producer, accepted"),
+            @ApiResponse(code = 400, message = "Validation error"),
+            @ApiResponse(code = 503, message = "Queue is full")
+    })
+    @PostMapping(consumes = {"application/json", EmployeeController.SMILE})
     @ResponseStatus(HttpStatus.OK)
     public void sendToQueueEmployee(@Valid @RequestBody Employee employee) {
         LOGGER.info(" IN: sendToQueueEmployee() - [{}]", employee);
-        jmsService.sendEmployee(employee);
+        if (localQueue != null) {
+            localQueue.send(employee);
+        } else {
+            rethrowIfFailed(jmsService.sendEmployee(employee));
+        }
+    }
+
+    /**
+     * Rethrow the failure of a send that failed before it was handed over, such as with a full producer.
+     */
+    private static void rethrowIfFailed(CompletableFuture<Void> sent) {
+        try {
+            sent.getNow(null);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
     }
 }
@@ -1,7 +1,17 @@
 package com.mastery.java.task.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.EmployeeAggregates;
+import com.mastery.java.task.dto.EmployeeProjection;
 import com.mastery.java.task.rest.excepton_handling.IdMismatchException;
+import com.mastery.java.task.rest.excepton_handling.InvalidParameterException;
 import com.mastery.java.task.service.EmployeeService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -10,13 +20,38 @@ import io.swagger.annotations.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 import javax.validation.Valid;
+import javax.validation.Validator;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  * @author Sergey Tsynin
@@ -29,53 +64,240 @@ public class EmployeeController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeController.class);
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final long MAX_PAGE_SIZE = 1000;
+
+    private static final int MAX_BULK_DELETE_IDS = 1000;
+
+    /**
+     * Fields PATCH may change, the rest are either the key or the expected version.
+     */
+    private static final List<String> PATCHABLE_FIELDS =
+            List.of("firstName", "lastName", "departmentId", "jobTitle", "gender", "dateOfBirth");
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private static final String EXPORT_TIMEOUT = EmployeeController.class.getName() + ".EXPORT_TIMEOUT";
+
+    /**
+     * Binary JSON, smaller and cheaper to parse, for clients that ask for it.
+     */
+    static final String SMILE = "application/x-jackson-smile";
+
     @Autowired
     private EmployeeService employeeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    /**
+     * How long an export may stream, other async requests keep the default timeout.
+     */
+    @Value("${employees.export.timeout-ms:3600000}")
+    private long exportTimeout;
+
+    @Value("${employees.batch.chunk-size:1000}")
+    private int batchChunkSize;
+
     public EmployeeController(EmployeeService employeeService) {
         LOGGER.debug("Employees controller was created");
     }
 
     /**
      * Get an employee by employee id.
+     * The ETag is the employee version. If-None-Match is checked once, against the version stored
+     * on the primary, before the employee is read, so an unchanged employee costs a single-column lookup.
+     * The employee returned is tagged with its own version.
      *
-     * @param id employee Id.
-     * @return employee.
+     * @param id      employee Id.
+     * @param request request, to check If-None-Match.
+     * @return employee, or null if it was not modified.
      */
     @ApiOperation(value = "Get one employee by id", tags = "employee")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Employee"),
+            @ApiResponse(code = 304, message = "Employee not modified"),
             @ApiResponse(code = 400, message = "Validation error"),
             @ApiResponse(code = 404, message = "Employee not found")
     })
-    @GetMapping(value = "/{id}", produces = {"application/json"})
-    public Employee getEmployeeById(@PathVariable @Min(1) Integer id) {
+    @GetMapping(value = "/{id}", produces = {"application/json", SMILE})
+    public Employee getEmployeeById(@PathVariable @Min(1) Integer id, WebRequest request) {
         LOGGER.info(" IN: getEmployeeById() - [{}]", id);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && checkNotModified(request, versionTag(employeeService.getEmployeeVersion(id)))) {
+            LOGGER.info("OUT: getEmployeeById() - not modified");
+            return null;
+        }
         var employee = employeeService.getEmployeeById(id);
+        tag(request, versionTag(employee.getVersion()));
         LOGGER.info("OUT: getEmployeeById() - [{}]", employee);
         return employee;
     }
 
     /**
-     * Get a list of employees with the ability to filter by name.
+     * Get the requested fields of an employee by employee id.
+     * Only the columns of these fields and the version, for the ETag, are read.
+     * If-None-Match is checked as for the whole employee.
+     *
+     * @param id      employee Id.
+     * @param fields  comma separated employee fields.
+     * @param request request, to check If-None-Match.
+     * @return employee fields, or null if the employee was not modified.
+     */
+    @ApiOperation(value = "Get the requested fields of one employee by id", tags = "employee")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Employee fields"),
+            @ApiResponse(code = 304, message = "Employee not modified"),
+            @ApiResponse(code = 400, message = "Validation error"),
+            @ApiResponse(code = 404, message = "Employee not found")
+    })
+    @GetMapping(value = "/{id}", params = "fields", produces = {"application/json", SMILE})
+    public EmployeeProjection getEmployeeFieldsById(@PathVariable @Min(1) Integer id,
+                                                    @RequestParam("fields") String fields,
+                                                    WebRequest request) {
+        LOGGER.info(" IN: getEmployeeFieldsById() - [{}, fields={}]", id, fields);
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && checkNotModified(request, versionTag(employeeService.getEmployeeVersion(id)))) {
+            LOGGER.info("OUT: getEmployeeFieldsById() - not modified");
+            return null;
+        }
+        var employee = employeeService.getEmployeeFieldsById(id, fields);
+        tag(request, versionTag(employee.getVersion()));
+        LOGGER.info("OUT: getEmployeeFieldsById() - [{}]", employee);
+        return employee;
+    }
+
+    /**
+     * Get a page of employees with the ability to filter by name.
+     * The cursor of the next page, if any, is returned in the X-Next-Cursor header.
+     * The ETag changes with every write of employees.
      *
      * @param firstName employee firstname.
      * @param lastName  employee lastname.
-     * @return Employees list.
+     * @param sort      sort order: employeeId, firstName or lastName, optionally followed by ",asc" or ",desc".
+     * @param cursor    cursor of the page to get.
+     * @param limit     page size.
+     * @param request   request, to check If-None-Match.
+     * @return Employees list, or null if it was not modified.
      */
-    @ApiOperation(value = "Get a list of employees with the ability to filter by name", tags = "employee")
+    @ApiOperation(value = "Get a page of employees with the ability to filter by name", tags = "employee")
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Employees list"),
+            @ApiResponse(code = 304, message = "Employees not modified"),
+            @ApiResponse(code = 400, message = "Validation error"),
+            @ApiResponse(code = 404, message = "Employees not found")
+    })
+    @GetMapping(produces = {"application/json", SMILE})
+    public ResponseEntity<List<Employee>> getEmployeesList(
+            @RequestParam(value = "firstName", defaultValue = "") String firstName,
+            @RequestParam(value = "lastName", defaultValue = "") String lastName,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) Integer limit,
+            WebRequest request) {
+        LOGGER.info(" IN: getEmployeesByName() - [FirstName={}, LastName={}, sort={}, cursor={}, limit={}]",
+                firstName, lastName, sort, cursor, limit);
+        if (checkNotModified(request, employeeService.getEmployeesTag())) {
+            LOGGER.info("OUT: getEmployeesByName() - not modified");
+            return null;
+        }
+        var page = employeeService.getEmployeesByName(firstName, lastName, sort, cursor, limit);
+        LOGGER.info("OUT: getEmployeesByName() - found {} employee(s)", page.getEmployees().size());
+        var response = ResponseEntity.ok();
+        if (page.getNext() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNext());
+        }
+        return response.body(page.getEmployees());
+    }
+
+    /**
+     * Get a page of the requested fields of employees with the ability to filter by name,
+     * paged the same way as the whole employees.
+     *
+     * @param firstName employee firstname.
+     * @param lastName  employee lastname.
+     * @param fields    comma separated employee fields.
+     * @param sort      sort order: employeeId, firstName or lastName, optionally followed by ",asc" or ",desc".
+     * @param cursor    cursor of the page to get.
+     * @param limit     page size.
+     * @param request   request, to check If-None-Match.
+     * @return Employee fields list, or null if it was not modified.
+     */
+    @ApiOperation(value = "Get a page of the requested fields of employees with the ability to filter by name",
+            tags = "employee")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Employee fields list"),
+            @ApiResponse(code = 304, message = "Employees not modified"),
+            @ApiResponse(code = 400, message = "Validation error"),
             @ApiResponse(code = 404, message = "Employees not found")
     })
-    @GetMapping(produces = {"application/json"})
-    public List<Employee> getEmployeesList(
+    @GetMapping(params = "fields", produces = {"application/json", SMILE})
+    public ResponseEntity<List<EmployeeProjection>> getEmployeeFieldsList(
             @RequestParam(value = "firstName", defaultValue = "") String firstName,
-            @RequestParam(value = "lastName", defaultValue = "") String lastName) {
-        LOGGER.info(" IN: getEmployeesByName() - [FirstName={}, LastName={}]", firstName, lastName);
-        var employees = employeeService.getEmployeesByName(firstName, lastName);
-        LOGGER.info("OUT: getEmployeesByName() - found {} employee(s)", employees.size());
-        return employees;
+            @RequestParam(value = "lastName", defaultValue = "") String lastName,
+            @RequestParam("fields") String fields,
+            @RequestParam(value = "sort", required = false) String sort,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) Integer limit,
+            WebRequest request) {
+        LOGGER.info(" IN: getEmployeeFieldsByName() - "
+                        + "[FirstName={}, LastName={}, fields={}, sort={}, cursor={}, limit={}]",
+                firstName, lastName, fields, sort, cursor, limit);
+        if (checkNotModified(request, employeeService.getEmployeesTag())) {
+            LOGGER.info("OUT: getEmployeeFieldsByName() - not modified");
+            return null;
+        }
+        var page = employeeService.getEmployeeFieldsByName(firstName, lastName, fields, sort, cursor, limit);
+        LOGGER.info("OUT: getEmployeeFieldsByName() - found {} employee(s)", page.getEmployees().size());
+        var response = ResponseEntity.ok();
+        if (page.getNext() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNext());
+        }
+        return response.body(page.getEmployees());
+    }
+
+    /**
+     * Export all employees as newline-delimited JSON.
+     * Rows are written as they are read from the database cursor,
+     * so neither the entities nor the response are held in memory.
+     * The export gets its own async timeout, since a big table takes longer than other requests.
+     *
+     * @param request request, to set the timeout of the export.
+     * @return response body writer.
+     */
+    @ApiOperation(value = "Export all employees as newline-delimited JSON", tags = "employee")
+    @GetMapping(value = "/export", produces = {NDJSON})
+    public StreamingResponseBody exportEmployees(WebRequest request) {
+        LOGGER.info(" IN: exportEmployees() - []");
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(EXPORT_TIMEOUT,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(exportTimeout);
+                    }
+                });
+        return outputStream -> {
+            ObjectWriter writer = objectMapper.writerFor(Employee.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            AtomicLong exported = new AtomicLong();
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                employeeService.exportEmployees(employee -> {
+                    try {
+                        writer.writeValue(generator, employee);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    exported.incrementAndGet();
+                });
+            }
+            LOGGER.info("OUT: exportEmployees() - exported {} employee(s)", exported.get());
+        };
     }
 
     /**
@@ -86,7 +308,7 @@ public class EmployeeController {
      */
     @ApiOperation(value = "Add a new employee", tags = "employee")
     @ApiResponse(code = 400, message = "Validation error")
-    @PostMapping(consumes = {"application/json"}, produces = {"application/json"})
+    @PostMapping(consumes = {"application/json", SMILE}, produces = {"application/json", SMILE})
     @ResponseStatus(HttpStatus.CREATED)
     public Employee createEmployee(@Valid @RequestBody Employee employee) {
         LOGGER.info(" IN: createEmployee() - [{}]", employee);
@@ -95,6 +317,48 @@ public class EmployeeController {
         return employeeReturn;
     }
 
+    /**
+     * Create new employee records with batch inserts.
+     *
+     * @param employees employees list.
+     * @return ids of saved employees in the order of the list.
+     */
+    @ApiOperation(value = "Add a list of new employees", tags = "employee")
+    @ApiResponse(code = 400, message = "Validation error")
+    @PostMapping(value = "/batch", consumes = {"application/json", SMILE}, produces = {"application/json", SMILE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Integer> createEmployees(@RequestBody List<@Valid Employee> employees) {
+        LOGGER.info(" IN: createEmployees() - [{} employee(s)]", employees.size());
+        var employeeIds = toIds(employeeService.createEmployees(employees));
+        LOGGER.info("OUT: createEmployees() - {} employee(s) saved", employeeIds.size());
+        return employeeIds;
+    }
+
+    /**
+     * Create new employee records from newline-delimited JSON with batch inserts.
+     * Every chunk of employees is read and validated before its own transaction, so a slow client
+     * holds no connection and the chunks saved before a wrong line stay saved.
+     *
+     * @param body newline-delimited JSON employees.
+     * @return ids of saved employees in the order of the stream.
+     */
+    @ApiOperation(value = "Add a stream of new employees", tags = "employee")
+    @ApiResponse(code = 400, message = "Validation error")
+    @PostMapping(value = "/batch", consumes = {NDJSON}, produces = {"application/json", SMILE})
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Integer> createEmployeesStream(InputStream body) throws IOException {
+        LOGGER.info(" IN: createEmployeesStream() - []");
+        List<Integer> employeeIds = new ArrayList<>();
+        try (MappingIterator<Employee> employees = objectMapper.readerFor(Employee.class).readValues(body)) {
+            List<Employee> chunk;
+            while (!(chunk = readChunk(employees, employeeIds.size())).isEmpty()) {
+                employeeIds.addAll(toIds(employeeService.createEmployees(chunk)));
+            }
+        }
+        LOGGER.info("OUT: createEmployeesStream() - {} employee(s) saved", employeeIds.size());
+        return employeeIds;
+    }
+
     /**
      * Update employee record in the database.
      *
@@ -105,9 +369,10 @@ public class EmployeeController {
     @ApiResponses(value = {
             @ApiResponse(code = 200, message = "Updated employee"),
             @ApiResponse(code = 400, message = "Validation error"),
-            @ApiResponse(code = 404, message = "Employee not found")
+            @ApiResponse(code = 404, message = "Employee not found"),
+            @ApiResponse(code = 409, message = "Employee has another version")
     })
-    @PutMapping(value = "/{id}", consumes = {"application/json"}, produces = {"application/json"})
+    @PutMapping(value = "/{id}", consumes = {"application/json", SMILE}, produces = {"application/json", SMILE})
     public Employee updateEmployee(@PathVariable Integer id, @Valid @RequestBody Employee employee) {
         LOGGER.info(" IN: updateEmployee() - [{}]", employee);
         if (!id.equals(employee.getEmployeeId())) {
@@ -118,6 +383,54 @@ public class EmployeeController {
         return employeeReturn;
     }
 
+    /**
+     * Change some fields of an employee. Absent fields are left as they are, the given ones are validated
+     * as with PUT. A field cannot be set to null, use PUT to clear it.
+     * If the version is given, the employee is changed only if it still has this version.
+     *
+     * @param id   employee Id.
+     * @param body fields to change and optional expected version.
+     */
+    @ApiOperation(value = "Change some fields of an existing employee", tags = "employee")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Employee was changed"),
+            @ApiResponse(code = 400, message = "Validation error or a field set to null"),
+            @ApiResponse(code = 404, message = "Employee not found"),
+            @ApiResponse(code = 409, message = "Employee has another version")
+    })
+    @PatchMapping(value = "/{id}", consumes = {"application/json", SMILE})
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patchEmployee(@PathVariable Integer id, @RequestBody JsonNode body) {
+        LOGGER.info(" IN: patchEmployee() - [{}]", body);
+        if (!body.isObject()) {
+            throw new InvalidParameterException("Employee patch must be an object");
+        }
+        Employee patch;
+        try {
+            patch = objectMapper.treeToValue(body, Employee.class);
+        } catch (JsonProcessingException e) {
+            throw new InvalidParameterException("Wrong employee patch: " + e.getOriginalMessage());
+        }
+        if (patch.getEmployeeId() != null && !id.equals(patch.getEmployeeId())) {
+            throw new IdMismatchException("Id mismatch");
+        }
+        Set<ConstraintViolation<Employee>> violations = new HashSet<>();
+        for (String field : PATCHABLE_FIELDS) {
+            if (body.has(field)) {
+                if (body.get(field).isNull()) {
+                    throw new InvalidParameterException("Employee " + field + " cannot be set to null");
+                }
+                violations.addAll(validator.validateProperty(patch, field));
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        patch.setEmployeeId(id);
+        employeeService.patchEmployee(patch);
+        LOGGER.info("OUT: patchEmployee() - [{}] - changed", id);
+    }
+
     /**
      * Delete employee by Id.
      *
@@ -133,17 +446,133 @@ public class EmployeeController {
         LOGGER.info("OUT: deleteEmployee() - [{}] - deleted", id);
     }
 
+    /**
+     * Delete employees by id list or all employees of a department with one statement.
+     * Exactly one of the parameters must be given.
+     *
+     * @param ids          employee ids.
+     * @param departmentId department Id.
+     * @return ids of deleted employees.
+     */
+    @ApiOperation(value = "Delete employees by id list or by department", tags = "employee")
+    @ApiResponse(code = 400, message = "Validation error")
+    @DeleteMapping(produces = {"application/json", SMILE})
+    public List<Integer> deleteEmployees(
+            @RequestParam(value = "ids", required = false)
+            @Size(min = 1, max = MAX_BULK_DELETE_IDS) List<Integer> ids,
+            @RequestParam(value = "departmentId", required = false) Integer departmentId) {
+        LOGGER.info(" IN: deleteEmployees() - [ids={}, departmentId={}]", ids, departmentId);
+        if ((ids == null) == (departmentId == null)) {
+            throw new InvalidParameterException("Either ids or departmentId must be given");
+        }
+        var deletedIds = ids != null
+                ? employeeService.deleteEmployees(ids)
+                : employeeService.deleteEmployeesByDepartment(departmentId);
+        LOGGER.info("OUT: deleteEmployees() - {} employee(s) deleted", deletedIds.size());
+        return deletedIds;
+    }
+
     /**
      * Get the number of employees in the database.
+     * The ETag changes with every write of employees.
      *
-     * @return the number of employees in the database.
+     * @param request request, to check If-None-Match.
+     * @return the number of employees in the database, or null if it was not modified.
      */
     @ApiOperation(value = "Get the number of employees in the database", tags = "employee")
-    @GetMapping(value = "/count", produces = {"application/json"})
-    public Integer getEmployeesCount() {
+    @GetMapping(value = "/count", produces = {"application/json", SMILE})
+    public Integer getEmployeesCount(WebRequest request) {
         LOGGER.info(" IN: getEmployeesCount() - []");
+        if (checkNotModified(request, employeeService.getEmployeesTag())) {
+            LOGGER.info("OUT: getEmployeesCount() - not modified");
+            return null;
+        }
         var count = employeeService.getEmployeesCount();
         LOGGER.info("OUT: getEmployeesCount() - found {} employee(s)", count);
         return count;
     }
-}
\ No newline at end of file
+
+    /**
+     * Get headcounts of employees by department, by gender and by age band.
+     * The ETag changes with every write of employees and with the year, as ages move with it.
+     *
+     * @param request request, to check If-None-Match.
+     * @return employee aggregates, or null if they were not modified.
+     */
+    @ApiOperation(value = "Get headcounts of employees by department, gender and age band", tags = "employee")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Employee aggregates"),
+            @ApiResponse(code = 304, message = "Employee aggregates not modified")})
+    @GetMapping(value = "/aggregates", produces = {"application/json", SMILE})
+    public EmployeeAggregates getEmployeeAggregates(WebRequest request) {
+        LOGGER.info(" IN: getEmployeeAggregates() - []");
+        if (checkNotModified(request, employeeService.getEmployeesTag() + "-" + Year.now())) {
+            LOGGER.info("OUT: getEmployeeAggregates() - not modified");
+            return null;
+        }
+        var aggregates = employeeService.getEmployeeAggregates();
+        LOGGER.info("OUT: getEmployeeAggregates() - {} employee(s) in {} department(s)",
+                aggregates.getTotal(), aggregates.getByDepartment().size());
+        return aggregates;
+    }
+
+    private List<Integer> toIds(List<Employee> employees) {
+        return employees.stream()
+                .map(Employee::getEmployeeId)
+                .collect(Collectors.toList());
+    }
+
+    private static String versionTag(Integer version) {
+        return version == null ? null : version.toString();
+    }
+
+    /**
+     * The JSON and Smile bodies of a resource share its tag, so the tag is weak,
+     * and the response varies by Accept for caches to keep the two apart.
+     */
+    private static boolean checkNotModified(WebRequest request, String tag) {
+        varyByAccept(request);
+        return request.checkNotModified(tag == null ? null : "W/\"" + tag + "\"");
+    }
+
+    /**
+     * Tag the response without checking If-None-Match again, which was checked against the stored tag:
+     * a body read from a replica may be older than that and would be answered 304 as not modified.
+     */
+    private static void tag(WebRequest request, String tag) {
+        HttpServletResponse response = varyByAccept(request);
+        if (response != null && tag != null) {
+            response.setHeader(HttpHeaders.ETAG, "W/\"" + tag + "\"");
+        }
+    }
+
+    private static HttpServletResponse varyByAccept(WebRequest request) {
+        HttpServletResponse response = ((NativeWebRequest) request).getNativeResponse(HttpServletResponse.class);
+        if (response != null && !response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return response;
+    }
+
+    private List<Employee> readChunk(MappingIterator<Employee> employees, int savedEmployees) {
+        List<Employee> chunk = new ArrayList<>(batchChunkSize);
+        try {
+            while (chunk.size() < batchChunkSize && employees.hasNext()) {
+                chunk.add(employees.next());
+            }
+        } catch (RuntimeException e) {
+            if (!(e.getCause() instanceof JsonProcessingException)) {
+                throw e;
+            }
+            throw new InvalidParameterException("Wrong employee at line " + employees.getCurrentLocation().getLineNr()
+                    + ", " + savedEmployees + " employee(s) before it saved");
+        }
+        for (Employee employee : chunk) {
+            var violations = validator.validate(employee);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+        }
+        return chunk;
+    }
+}
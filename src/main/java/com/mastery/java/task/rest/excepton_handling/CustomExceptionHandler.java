@@ -2,6 +2,7 @@ package com.mastery.java.task.rest.excepton_handling;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -40,6 +41,13 @@ public class CustomExceptionHandler {
         return exception.getMessage();
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public String handleValidationsErrors(InvalidParameterException exception) {
+        LOGGER.error(exception.getMessage(), exception);
+        return exception.getMessage();
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public String handleConstraintViolationException(ConstraintViolationException exception) {
@@ -47,6 +55,29 @@ public class CustomExceptionHandler {
         return "Validation error.";
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleConflictException(VersionConflictException exception) {
+        String message = exception.getMessage();
+        LOGGER.error(message, exception);
+        return message;
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public String handleConflictException(OptimisticLockingFailureException exception) {
+        LOGGER.error(exception.getMessage(), exception);
+        return "Employee was changed by someone else!";
+    }
+
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String handleQueueFullException(QueueFullException exception) {
+        String message = exception.getMessage();
+        LOGGER.error(message, exception);
+        return message;
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public String handleUnknownExceptions(Exception exception) {
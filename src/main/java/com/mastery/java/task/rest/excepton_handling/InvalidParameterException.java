@@ -0,0 +1,11 @@
+package com.mastery.java.task.rest.excepton_handling;
+
+/**
+ * @author Sergey Tsynin
+ */
+public class InvalidParameterException extends RuntimeException {
+
+    public InvalidParameterException(String message) {
+        super(message);
+    }
+}
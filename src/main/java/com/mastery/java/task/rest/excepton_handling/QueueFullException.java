@@ -0,0 +1,11 @@
+package com.mastery.java.task.rest.excepton_handling;
+
+/**
+ * @author Sergey Tsynin
+ */
+public class QueueFullException extends RuntimeException {
+
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
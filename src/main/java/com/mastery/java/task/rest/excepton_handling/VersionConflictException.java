@@ -0,0 +1,11 @@
+package com.mastery.java.task.rest.excepton_handling;
+
+/**
+ * @author Sergey Tsynin
+ */
+public class VersionConflictException extends RuntimeException {
+
+    public VersionConflictException(String message) {
+        super(message);
+    }
+}
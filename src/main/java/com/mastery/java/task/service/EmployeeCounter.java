@@ -0,0 +1,118 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dao.EmployeeJpaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Number of employees kept in memory and moved by every committed write of this application,
+ * so reading it does not touch the EMPLOYEE table.
+ * The counter is recounted against the database periodically, which corrects the drift
+ * caused by rows written past this application. A recount is applied only if no write
+ * started or finished while it was running, otherwise it is left to the next one.
+ *
+ * @author Sergey Tsynin
+ */
+@Component
+public class EmployeeCounter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeCounter.class);
+
+    private static final long UNKNOWN = -1;
+
+    @Autowired
+    private EmployeeJpaRepository jpaRepository;
+
+    private volatile long count = UNKNOWN;
+
+    /**
+     * Guarded by this.
+     */
+    private int writesInFlight;
+
+    /**
+     * Guarded by this.
+     */
+    private long writesFinished;
+
+    public EmployeeCounter() {
+        LOGGER.debug("Employees counter was created");
+    }
+
+    /**
+     * @return the number of employees.
+     */
+    public long get() {
+        long value = count;
+        return value == UNKNOWN ? recount() : value;
+    }
+
+    /**
+     * Run a write and move the counter by the number of employees it added or removed.
+     * The write must be committed when it returns.
+     *
+     * @param write write to run.
+     * @param delta number of employees added (positive) or removed (negative) by the write.
+     * @param <T>   write result type.
+     * @return write result.
+     */
+    public <T> T track(Supplier<T> write, ToLongFunction<T> delta) {
+        synchronized (this) {
+            writesInFlight++;
+        }
+        long change = 0;
+        try {
+            T result = write.get();
+            change = delta.applyAsLong(result);
+            return result;
+        } finally {
+            synchronized (this) {
+                writesInFlight--;
+                writesFinished++;
+                if (count != UNKNOWN) {
+                    count += change;
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${employees.count.reconcile-interval-ms:600000}",
+            fixedDelayString = "${employees.count.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        recount();
+    }
+
+    /**
+     * Count employees in the database and take the result if no write could have
+     * been committed around it.
+     *
+     * @return the number of employees in the database.
+     */
+    long recount() {
+        long writesBefore;
+        synchronized (this) {
+            writesBefore = writesInFlight == 0 ? writesFinished : UNKNOWN;
+        }
+        long actual = jpaRepository.count();
+        synchronized (this) {
+            if (writesBefore != UNKNOWN && writesInFlight == 0 && writesFinished == writesBefore) {
+                if (count != UNKNOWN && count != actual) {
+                    LOGGER.warn("Employees count was corrected from {} to {}", count, actual);
+                }
+                count = actual;
+            } else {
+                LOGGER.debug("Employees were written while counting, the recount was skipped");
+            }
+        }
+        return actual;
+    }
+}
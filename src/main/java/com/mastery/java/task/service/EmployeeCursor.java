@@ -0,0 +1,80 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dao.EmployeeSort;
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.rest.excepton_handling.InvalidParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: sort order plus the sort key and id of the last returned employee,
+ * packed as url-safe base64 of "field,direction:id:value".
+ *
+ * @author Sergey Tsynin
+ */
+final class EmployeeCursor {
+
+    private final EmployeeSort sort;
+    private final Object lastValue;
+    private final Integer lastId;
+
+    private EmployeeCursor(EmployeeSort sort, Object lastValue, Integer lastId) {
+        this.sort = sort;
+        this.lastValue = lastValue;
+        this.lastId = lastId;
+    }
+
+    /**
+     * Build cursor pointing right after the given employee.
+     */
+    static String encode(EmployeeSort sort, Employee last) {
+        Object value;
+        switch (sort.getField()) {
+            case FIRST_NAME:
+                value = last.getFirstName();
+                break;
+            case LAST_NAME:
+                value = last.getLastName();
+                break;
+            default:
+                value = null;
+        }
+        return encode(sort, last.getEmployeeId(), value);
+    }
+
+    /**
+     * Build cursor pointing right after the employee with the given id and sort key value.
+     */
+    static String encode(EmployeeSort sort, Integer lastId, Object lastValue) {
+        String value = sort.getField() == EmployeeSort.Field.EMPLOYEE_ID ? "" : String.valueOf(lastValue);
+        String raw = sort + ":" + lastId + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static EmployeeCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            EmployeeSort sort = EmployeeSort.parse(parts[0]);
+            Integer lastId = Integer.valueOf(parts[1]);
+            Object lastValue = sort.getField() == EmployeeSort.Field.EMPLOYEE_ID ? lastId : parts[2];
+            return new EmployeeCursor(sort, lastValue, lastId);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidParameterException("Wrong cursor");
+        }
+    }
+
+    EmployeeSort getSort() {
+        return sort;
+    }
+
+    Object getLastValue() {
+        return lastValue;
+    }
+
+    Integer getLastId() {
+        return lastId;
+    }
+}
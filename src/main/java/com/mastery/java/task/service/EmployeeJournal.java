@@ -0,0 +1,361 @@
+package com.mastery.java.task.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mastery.java.task.dto.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of queued employees in segment files of the journal directory.
+ * A segment is named by the journal position of its first byte, a record is the length
+ * and CRC32 of its Smile body followed by the body. The checkpoint file keeps the position
+ * up to which employees are in the database; segments below it are deleted.
+ * A record torn by a crash is cut off when the journal is opened, so appends go after
+ * the last complete record. The checkpoint and new segments are made durable with an fsync
+ * of the directory, since a rename or a new file is written to the directory and not to the file.
+ *
+ * @author Sergey Tsynin
+ */
+class EmployeeJournal implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeJournal.class);
+
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private static final String CHECKPOINT = "checkpoint";
+
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    /**
+     * Directories cannot be opened for an fsync on Windows, where a rename is durable without it.
+     */
+    private static final boolean SYNC_DIRECTORY = !System.getProperty("os.name").startsWith("Windows");
+
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory())
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final ObjectWriter writer = SMILE_MAPPER.writerFor(Employee.class);
+
+    private final ObjectReader reader = SMILE_MAPPER.readerFor(Employee.class);
+
+    private final Path directory;
+
+    private final long segmentSize;
+
+    /**
+     * Segment files by their first position. Guarded by this.
+     */
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private FileChannel active;
+
+    private long activeBase;
+
+    private long end;
+
+    private long checkpoint;
+
+    /**
+     * Why the journal refuses appends, null while it takes them.
+     */
+    private IOException failure;
+
+    /**
+     * Open the journal, creating the directory if needed.
+     *
+     * @param directory   journal directory.
+     * @param segmentSize bytes from which a segment is closed and a new one started.
+     */
+    EmployeeJournal(Path directory, long segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .forEach(file -> segments.put(baseOf(file), file));
+        }
+        checkpoint = readCheckpoint();
+        if (segments.isEmpty()) {
+            openSegment(checkpoint);
+        } else {
+            activeBase = segments.lastKey();
+            active = FileChannel.open(segments.lastEntry().getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long validSize = scan(active, activeBase, Long.MAX_VALUE, null) - activeBase;
+            if (validSize < active.size()) {
+                LOGGER.warn("Cut {} byte(s) of a torn record off the journal", active.size() - validSize);
+                active.truncate(validSize);
+                active.force(true);
+            }
+            active.position(validSize);
+            end = activeBase + validSize;
+        }
+    }
+
+    /**
+     * Write employees at the end of the journal.
+     * A failed append, the fsync included, cuts what it wrote off the journal; if even that fails,
+     * the journal refuses appends until it is opened again, so nothing is appended after records
+     * whose callers were told they were not journaled.
+     *
+     * @param employees employees to write.
+     * @param sync      true to force them to the disk before returning.
+     * @return journal position after the last of them.
+     */
+    synchronized long append(List<Employee> employees, boolean sync) throws IOException {
+        if (failure != null) {
+            throw new IOException("Journal refuses appends after a failed one, it must be opened again", failure);
+        }
+        List<byte[]> bodies = new ArrayList<>(employees.size());
+        int size = 0;
+        for (Employee employee : employees) {
+            byte[] body = writer.writeValueAsBytes(employee);
+            bodies.add(body);
+            size += HEADER_SIZE + body.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] body : bodies) {
+            crc.reset();
+            crc.update(body);
+            buffer.putInt(body.length).putInt((int) crc.getValue()).put(body);
+        }
+        buffer.flip();
+        long activeSize = end - activeBase;
+        boolean full = activeSize + size >= segmentSize;
+        try {
+            while (buffer.hasRemaining()) {
+                active.write(buffer);
+            }
+            if (sync || full) {
+                force(active);
+            }
+        } catch (IOException e) {
+            cutOff(activeSize, e);
+            throw e;
+        }
+        end += size;
+        if (full) {
+            active.close();
+            try {
+                openSegment(end);
+            } catch (IOException e) {
+                LOGGER.error("Next journal segment was not created, the journal refuses appends", e);
+                failure = e;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Remember that employees up to the position are in the database and delete the segments below it.
+     *
+     * @param position journal position returned by append.
+     */
+    synchronized void commit(long position) throws IOException {
+        Path checkpointFile = directory.resolve(CHECKPOINT);
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(Long.toString(position).getBytes(StandardCharsets.US_ASCII));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            force(channel);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        checkpoint = position;
+        Map.Entry<Long, Path> first = segments.firstEntry();
+        Long next = segments.higherKey(first.getKey());
+        while (next != null && next <= position) {
+            Files.deleteIfExists(first.getValue());
+            segments.remove(first.getKey());
+            first = segments.firstEntry();
+            next = segments.higherKey(first.getKey());
+        }
+    }
+
+    /**
+     * Read employees that are not in the database yet, the ones after the checkpoint.
+     *
+     * @param from       journal position to read from, the checkpoint or the position of the last record read.
+     * @param maxRecords maximum number of employees to read.
+     * @param employees  receives the employees read.
+     * @return journal position after the last employee read.
+     */
+    synchronized long read(long from, int maxRecords, List<Employee> employees) throws IOException {
+        long position = from;
+        while (position < end && employees.size() < maxRecords) {
+            Map.Entry<Long, Path> segment = segments.floorEntry(position);
+            if (segment == null) {
+                position = segments.firstKey();
+                continue;
+            }
+            Long nextBase = segments.higherKey(segment.getKey());
+            long segmentEnd = nextBase == null ? end : nextBase;
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ)) {
+                channel.position(position - segment.getKey());
+                long read = scan(channel, segment.getKey(), maxRecords - employees.size(), employees);
+                if (read < segmentEnd && employees.size() < maxRecords) {
+                    LOGGER.error("Journal segment {} is damaged after position {}, skipping the rest of it",
+                            segment.getValue(), read);
+                    read = segmentEnd;
+                }
+                position = read;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * @return journal position up to which employees are in the database.
+     */
+    synchronized long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * @return journal position after the last employee.
+     */
+    synchronized long getEnd() {
+        return end;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        active.close();
+    }
+
+    /**
+     * Force the channel to the disk, file data only.
+     */
+    void force(FileChannel channel) throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Cut a failed append off the active segment, or refuse appends if that fails too.
+     */
+    private void cutOff(long activeSize, IOException cause) {
+        try {
+            active.truncate(activeSize);
+            active.position(activeSize);
+            force(active);
+        } catch (IOException e) {
+            LOGGER.error("Failed append was not cut off the journal, the journal refuses appends", e);
+            cause.addSuppressed(e);
+            failure = cause;
+        }
+    }
+
+    /**
+     * Read the checkpoint, or start from the first segment if there is none or it cannot be read,
+     * such as when it was left empty by a crash: employees are then saved again rather than lost.
+     */
+    private long readCheckpoint() throws IOException {
+        long first = segments.isEmpty() ? 0 : segments.firstKey();
+        Path checkpointFile = directory.resolve(CHECKPOINT);
+        if (!Files.exists(checkpointFile)) {
+            return first;
+        }
+        String content = Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim();
+        try {
+            return Long.parseLong(content);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Journal checkpoint '{}' is damaged, employees are saved again from position {}",
+                    content, first);
+            return first;
+        }
+    }
+
+    private void openSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", base, SEGMENT_SUFFIX));
+        active = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        activeBase = base;
+        end = base;
+        segments.put(base, file);
+        syncDirectory();
+    }
+
+    private void syncDirectory() throws IOException {
+        if (SYNC_DIRECTORY) {
+            try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                channel.force(true);
+            }
+        }
+    }
+
+    /**
+     * Read whole records from the channel position until the end of the channel or the first damaged record.
+     *
+     * @param channel    segment channel.
+     * @param base       journal position of the segment start.
+     * @param maxRecords maximum number of records to read.
+     * @param employees  receives employees of the records, null to only check them.
+     * @return journal position after the last whole record.
+     */
+    private long scan(FileChannel channel, long base, long maxRecords, List<Employee> employees) throws IOException {
+        long position = channel.position();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        CRC32 crc = new CRC32();
+        for (long records = 0; records < maxRecords; records++) {
+            header.clear();
+            if (!readFully(channel, header)) {
+                break;
+            }
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length <= 0 || length > channel.size() - channel.position()) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(length);
+            if (!readFully(channel, body)) {
+                break;
+            }
+            crc.reset();
+            crc.update(body.array());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            if (employees != null) {
+                employees.add(reader.readValue(body.array()));
+            }
+            position = channel.position();
+        }
+        return base + position;
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long baseOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
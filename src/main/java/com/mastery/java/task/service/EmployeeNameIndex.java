@@ -0,0 +1,245 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dao.EmployeeJpaRepository;
+import com.mastery.java.task.dto.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory trigram inverted index over employee first and last names.
+ * Resolves substring searches to employee ids without scanning the EMPLOYEE table.
+ * Matching is case-sensitive, the same as SQL LIKE.
+ *
+ * @author Sergey Tsynin
+ */
+@Component
+public class EmployeeNameIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeNameIndex.class);
+
+    static final int GRAM_LENGTH = 3;
+
+    @Value("${employees.name-index.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private EmployeeJpaRepository jpaRepository;
+
+    private final Map<Integer, Names> names = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> firstNameGrams = new ConcurrentHashMap<>();
+    private final Map<String, Set<Integer>> lastNameGrams = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    public EmployeeNameIndex() {
+        LOGGER.debug("Employees name index was created");
+    }
+
+    EmployeeNameIndex(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Load names of all employees. Entries written by {@link #put} while loading win over loaded ones.
+     * Names are read from the primary, as employees missed on a lagging replica would never be found.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<Object[]> rows = jpaRepository.streamNames()) {
+            rows.forEach(row -> putIfAbsent((Integer) row[0], (String) row[1], (String) row[2]));
+        }
+        ready = true;
+        LOGGER.info("Employees name index was built - {} employee(s) in {} ms",
+                names.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return true if searches can be resolved by the index.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Add or replace names of the employee.
+     *
+     * @param employee saved employee.
+     */
+    public void put(Employee employee) {
+        if (!enabled) {
+            return;
+        }
+        Names newNames = new Names(employee.getFirstName(), employee.getLastName());
+        names.compute(employee.getEmployeeId(), (id, oldNames) -> {
+            reindex(id, oldNames, newNames);
+            return newNames;
+        });
+    }
+
+    /**
+     * Replace the given names of the employee, keeping the other one.
+     *
+     * @param employeeId employee Id.
+     * @param firstName  new firstname or null to keep the current one.
+     * @param lastName   new lastname or null to keep the current one.
+     */
+    public void update(Integer employeeId, String firstName, String lastName) {
+        if (!enabled || (firstName == null && lastName == null)) {
+            return;
+        }
+        names.computeIfPresent(employeeId, (id, oldNames) -> {
+            Names newNames = new Names(
+                    firstName == null ? oldNames.firstName : firstName,
+                    lastName == null ? oldNames.lastName : lastName);
+            reindex(id, oldNames, newNames);
+            return newNames;
+        });
+    }
+
+    /**
+     * Remove the employee from the index.
+     *
+     * @param employeeId employee Id.
+     */
+    public void remove(Integer employeeId) {
+        if (!enabled) {
+            return;
+        }
+        names.computeIfPresent(employeeId, (id, oldNames) -> {
+            reindex(id, oldNames, null);
+            return null;
+        });
+    }
+
+    /**
+     * Find ids of employees whose names contain the given strings.
+     *
+     * @param firstName  part of employee firstname, empty for any.
+     * @param lastName   part of employee lastname, empty for any.
+     * @param maxResults maximum number of ids worth returning.
+     * @return matching employee ids or null if there are more than maxResults of them.
+     */
+    public Collection<Integer> search(String firstName, String lastName, int maxResults) {
+        List<Set<Integer>> postings = new ArrayList<>();
+        if (!collectPostings(firstNameGrams, firstName, postings)
+                || !collectPostings(lastNameGrams, lastName, postings)) {
+            return new ArrayList<>();
+        }
+
+        Collection<Integer> candidates;
+        if (postings.isEmpty()) {
+            candidates = names.keySet();
+        } else {
+            postings.sort((a, b) -> Integer.compare(a.size(), b.size()));
+            candidates = postings.get(0);
+        }
+
+        List<Integer> found = new ArrayList<>();
+        for (Integer id : candidates) {
+            if (postings.stream().allMatch(posting -> posting.contains(id))) {
+                Names employeeNames = names.get(id);
+                if (employeeNames != null
+                        && employeeNames.firstName.contains(firstName)
+                        && employeeNames.lastName.contains(lastName)) {
+                    found.add(id);
+                    if (found.size() > maxResults) {
+                        return null;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return false if some gram of the value is not indexed at all, so nothing can match.
+     */
+    private boolean collectPostings(Map<String, Set<Integer>> index, String value, List<Set<Integer>> postings) {
+        for (String gram : grams(value)) {
+            Set<Integer> posting = index.get(gram);
+            if (posting == null) {
+                return false;
+            }
+            postings.add(posting);
+        }
+        return true;
+    }
+
+    private void putIfAbsent(Integer employeeId, String firstName, String lastName) {
+        Names newNames = new Names(firstName, lastName);
+        names.computeIfAbsent(employeeId, id -> {
+            reindex(id, null, newNames);
+            return newNames;
+        });
+    }
+
+    private void reindex(Integer employeeId, Names oldNames, Names newNames) {
+        reindex(firstNameGrams, employeeId,
+                oldNames == null ? null : oldNames.firstName, newNames == null ? null : newNames.firstName);
+        reindex(lastNameGrams, employeeId,
+                oldNames == null ? null : oldNames.lastName, newNames == null ? null : newNames.lastName);
+    }
+
+    private void reindex(Map<String, Set<Integer>> index, Integer employeeId, String oldValue, String newValue) {
+        Set<String> oldGrams = grams(oldValue);
+        Set<String> newGrams = grams(newValue);
+        for (String gram : oldGrams) {
+            if (!newGrams.contains(gram)) {
+                index.computeIfPresent(gram, (g, posting) -> {
+                    posting.remove(employeeId);
+                    return posting.isEmpty() ? null : posting;
+                });
+            }
+        }
+        for (String gram : newGrams) {
+            if (!oldGrams.contains(gram)) {
+                index.compute(gram, (g, posting) -> {
+                    Set<Integer> result = posting == null ? ConcurrentHashMap.newKeySet() : posting;
+                    result.add(employeeId);
+                    return result;
+                });
+            }
+        }
+    }
+
+    static Set<String> grams(String value) {
+        Set<String> grams = new HashSet<>();
+        if (value != null) {
+            for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    private static final class Names {
+
+        private final String firstName;
+        private final String lastName;
+
+        private Names(String firstName, String lastName) {
+            this.firstName = firstName == null ? "" : firstName;
+            this.lastName = lastName == null ? "" : lastName;
+        }
+    }
+}
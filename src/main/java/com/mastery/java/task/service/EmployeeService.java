@@ -1,14 +1,50 @@
 package com.mastery.java.task.service;
 
+import com.mastery.java.task.dao.EmployeeEntityCache;
+import com.mastery.java.task.dao.EmployeeField;
+import com.mastery.java.task.dao.EmployeeJdbcRepository;
 import com.mastery.java.task.dao.EmployeeJpaRepository;
+import com.mastery.java.task.dao.EmployeeSort;
 import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.EmployeeAggregates;
+import com.mastery.java.task.dto.EmployeeHeadcount;
+import com.mastery.java.task.dto.EmployeePage;
+import com.mastery.java.task.dto.EmployeeProjection;
+import com.mastery.java.task.dto.Gender;
+import com.mastery.java.task.rest.excepton_handling.InvalidParameterException;
 import com.mastery.java.task.rest.excepton_handling.ResourceNotFoundException;
+import com.mastery.java.task.rest.excepton_handling.VersionConflictException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.mastery.java.task.config.CacheConfig.EMPLOYEES_CACHE;
 
 /**
  * @author Sergey Tsynin
@@ -18,6 +54,14 @@ public class EmployeeService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeService.class);
 
+    /**
+     * Order of the EMPLOYEE_AGGREGATE keys, in which the aggregate rows are locked by the triggers.
+     */
+    private static final Comparator<Employee> AGGREGATE_KEY_ORDER = Comparator
+            .comparingInt((Employee employee) -> employee.getDepartmentId() == null ? -1 : employee.getDepartmentId())
+            .thenComparing(employee -> employee.getGender() == null ? "" : employee.getGender().name())
+            .thenComparingInt(employee -> employee.getDateOfBirth() == null ? -1 : employee.getDateOfBirth().getYear());
+
     public EmployeeService() {
         LOGGER.debug("Employees service was created");
     }
@@ -25,63 +69,327 @@ public class EmployeeService {
     @Autowired
     private EmployeeJpaRepository jpaRepository;
 
+    @Autowired
+    private EmployeeJdbcRepository jdbcRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EmployeeEntityCache entityCache;
+
+    @Autowired
+    private EmployeeNameIndex nameIndex;
+
+    @Autowired
+    private EmployeeCounter employeeCounter;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     /**
-     * Get employee by employeeId.
+     * Name searches matching more ids than this go to the database as LIKE queries,
+     * since a long id list is no cheaper than scanning.
+     */
+    @Value("${employees.name-index.max-candidates:1000}")
+    private int nameIndexMaxCandidates;
+
+    @Value("${employees.batch.chunk-size:1000}")
+    private int batchChunkSize;
+
+    /**
+     * Ascending lower bounds of the age bands of the employee aggregates.
+     */
+    @Value("${employees.aggregates.age-bands:18,25,35,45,55,65}")
+    private int[] ageBands;
+
+    /**
+     * Get employee by employeeId, read through the employees cache.
+     * A miss is loaded while holding the cache entry: concurrent readers of the id wait for
+     * the one load, and an eviction of the id waits until the load is over and then removes it,
+     * so a load that read the row before a write cannot put it back after the write evicted it.
+     * A miss is loaded in a read-write transaction, that is from the primary: a replica that has not
+     * caught up with the write yet would put the old row back.
+     * The employees cache is the one cache of employees by id: a miss bypasses the second-level cache,
+     * which backs the name queries, and If-None-Match is checked against the stored version, not a cached one.
+     * Callers get copies and cannot change the cached employee.
      *
      * @param employeeId employee Id.
      * @return employee.
      */
     public Employee getEmployeeById(Integer employeeId) {
-        return jpaRepository.findById(employeeId)
+        try {
+            return new Employee(employeesCache().get(employeeId, () -> transactionTemplate.execute(status ->
+                    jpaRepository.findUncachedById(employeeId).orElseThrow(() ->
+                            new ResourceNotFoundException(notFoundForThisIdMessage(employeeId))))));
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get the version of the employee without reading the whole row.
+     * The version is read in a read-write transaction, that is from the primary: a replica that has not
+     * caught up with a write would answer a client holding the old employee that it is not modified.
+     *
+     * @param employeeId employee Id.
+     * @return employee version.
+     */
+    public Integer getEmployeeVersion(Integer employeeId) {
+        return transactionTemplate.execute(status -> jdbcRepository.findVersion(employeeId)
                 .orElseThrow(() ->
-                        new ResourceNotFoundException(notFoundForThisIdMessage(employeeId)));
+                        new ResourceNotFoundException(notFoundForThisIdMessage(employeeId))));
     }
 
     /**
-     * Get employee by firstname and lastname.
+     * Get the tag of the current state of all employees, changed by every write.
      *
-     * @param firstName employee firstname.
-     * @param lastName  employee lastname.
-     * @return employee.
+     * @return employees tag.
+     */
+    @Transactional(readOnly = true)
+    public String getEmployeesTag() {
+        return Long.toString(jdbcRepository.findChangeNumber());
+    }
+
+    /**
+     * Get one page of employees filtered by firstname and lastname.
+     * Pages are addressed by keyset, so the cost of every page stays the same
+     * no matter how deep the client has scrolled.
+     * Concurrent identical searches share one query: only the caller running it opens a read-only
+     * transaction, the others hold no connection while they wait for its result.
+     *
+     * @param firstName part of employee firstname.
+     * @param lastName  part of employee lastname.
+     * @param sort      sort order as "field[,asc|desc]", null for the default or the cursor one.
+     * @param cursor    cursor returned with the previous page, null for the first page.
+     * @param limit     page size.
+     * @return employees page.
+     */
+    public EmployeePage<Employee> getEmployeesByName(String firstName, String lastName,
+                                                     String sort, String cursor, int limit) {
+        return singleFlight.execute("employeesByName", Arrays.asList(firstName, lastName, sort, cursor, limit),
+                () -> readOnlyTransactionTemplate.execute(status -> findEmployeesByName(
+                        firstName, lastName, sort, cursor, limit,
+                        (employeeIds, employeeSort, afterValue, afterId, size) -> employeeIds == null
+                                ? jpaRepository.findPage(firstName, lastName, employeeSort, afterValue, afterId, size)
+                                : jpaRepository.findPageByIds(employeeIds, employeeSort, afterValue, afterId, size),
+                        (employeeSort, last) -> EmployeeCursor.encode(employeeSort, last))));
+    }
+
+    /**
+     * Get one page of the given fields of employees filtered by firstname and lastname,
+     * paged the same way as {@link #getEmployeesByName}.
+     * Only the columns of these fields are read, no entity is built.
+     *
+     * @param firstName part of employee firstname.
+     * @param lastName  part of employee lastname.
+     * @param fields    comma separated employee fields.
+     * @param sort      sort order as "field[,asc|desc]", null for the default or the cursor one.
+     * @param cursor    cursor returned with the previous page, null for the first page.
+     * @param limit     page size.
+     * @return page of employee projections.
+     */
+    public EmployeePage<EmployeeProjection> getEmployeeFieldsByName(String firstName, String lastName, String fields,
+                                                                    String sort, String cursor, int limit) {
+        Set<EmployeeField> employeeFields = parseFields(fields);
+        var key = Arrays.asList(firstName, lastName, employeeFields, sort, cursor, limit);
+        return singleFlight.execute("employeeFieldsByName", key, () -> readOnlyTransactionTemplate.execute(status -> {
+            var tuples = findEmployeesByName(firstName, lastName, sort, cursor, limit,
+                    (employeeIds, employeeSort, afterValue, afterId, size) -> employeeIds == null
+                            ? jpaRepository.findFieldsPage(firstName, lastName, employeeFields,
+                            employeeSort, afterValue, afterId, size)
+                            : jpaRepository.findFieldsPageByIds(employeeIds, employeeFields,
+                            employeeSort, afterValue, afterId, size),
+                    (employeeSort, last) -> EmployeeCursor.encode(employeeSort,
+                            last.get(EmployeeField.EMPLOYEE_ID.getParameterName(), Integer.class),
+                            last.get(employeeSort.getField().getParameterName())));
+            List<EmployeeProjection> projections = new ArrayList<>(tuples.getEmployees().size());
+            for (Tuple tuple : tuples.getEmployees()) {
+                projections.add(projection(tuple, employeeFields, null));
+            }
+            return new EmployeePage<>(projections, tuples.getNext());
+        }));
+    }
+
+    /**
+     * Get the given fields of the employee, reading only their columns and the version.
+     *
+     * @param employeeId employee Id.
+     * @param fields     comma separated employee fields.
+     * @return employee projection.
      */
-    public List<Employee> getEmployeesByName(String firstName, String lastName) {
-        var employees = jpaRepository
-                .findByFirstNameContainsAndLastNameContains(firstName, lastName);
-        if (employees.isEmpty()) {
+    @Transactional(readOnly = true)
+    public EmployeeProjection getEmployeeFieldsById(Integer employeeId, String fields) {
+        Set<EmployeeField> employeeFields = parseFields(fields);
+        return jpaRepository.findFieldsById(employeeId, employeeFields)
+                .map(tuple -> projection(tuple, employeeFields,
+                        tuple.get(EmployeeField.VERSION.getParameterName(), Integer.class)))
+                .orElseThrow(() ->
+                        new ResourceNotFoundException(notFoundForThisIdMessage(employeeId)));
+    }
+
+    /**
+     * @param pageQuery reads a page of employees by name, or of the given ids if they are not null.
+     * @param cursorOf  builds the cursor pointing right after the given employee.
+     */
+    private <T> EmployeePage<T> findEmployeesByName(String firstName, String lastName,
+                                                    String sort, String cursor, int limit,
+                                                    PageQuery<T> pageQuery,
+                                                    BiFunction<EmployeeSort, T, String> cursorOf) {
+        EmployeeSort employeeSort = parseSort(sort);
+        Object afterValue = null;
+        Integer afterId = null;
+        if (cursor != null) {
+            EmployeeCursor employeeCursor = EmployeeCursor.decode(cursor);
+            if (sort != null && !employeeSort.equals(employeeCursor.getSort())) {
+                throw new InvalidParameterException("Sort order does not match the cursor");
+            }
+            employeeSort = employeeCursor.getSort();
+            afterValue = employeeCursor.getLastValue();
+            afterId = employeeCursor.getLastId();
+        }
+
+        List<T> employees = null;
+        if (nameIndex.isReady() && !(firstName.isEmpty() && lastName.isEmpty())) {
+            var employeeIds = nameIndex.search(firstName, lastName, nameIndexMaxCandidates);
+            if (employeeIds != null) {
+                employees = pageQuery.find(employeeIds, employeeSort, afterValue, afterId, limit + 1);
+            }
+        }
+        if (employees == null) {
+            employees = pageQuery.find(null, employeeSort, afterValue, afterId, limit + 1);
+        }
+        if (employees.isEmpty() && cursor == null) {
             throw new ResourceNotFoundException("Nothing was found for these parameters");
         }
-        return employees;
+        if (employees.size() <= limit) {
+            return new EmployeePage<>(employees, null);
+        }
+        employees = employees.subList(0, limit);
+        return new EmployeePage<>(employees, cursorOf.apply(employeeSort, employees.get(limit - 1)));
+    }
+
+    /**
+     * Pass every employee to the consumer, reading them through a database cursor.
+     * Each employee is detached right after it was consumed, so the persistence
+     * context does not grow with the table.
+     *
+     * @param consumer employee consumer.
+     */
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = jpaRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
     }
 
     /**
-     * Save new employee record.
+     * Save new employee record. An employeeId set by the caller is ignored,
+     * so the employee is always inserted and never overwrites an existing one.
      *
      * @param employee object.
      * @return saved employee.
      */
     public Employee createEmployee(Employee employee) {
-        return jpaRepository.save(employee);
+        employee.setEmployeeId(null);
+        employee.setVersion(null);
+        Employee savedEmployee = employeeCounter.track(() -> jpaRepository.save(employee), saved -> 1);
+        nameIndex.put(savedEmployee);
+        return savedEmployee;
+    }
+
+    /**
+     * Save new employee records with batch inserts of chunk-size rows in one transaction.
+     * Either all of them are saved or none.
+     * Every insert of a batch is a statement of its own, so employees are inserted in the order
+     * of their headcount keys: concurrent batches then lock the aggregate rows in the same order
+     * and wait for each other instead of deadlocking.
+     *
+     * @param employees employees to save.
+     * @return saved employees with generated ids, in the order of employees.
+     */
+    public List<Employee> createEmployees(List<Employee> employees) {
+        List<Employee> inKeyOrder = new ArrayList<>(employees);
+        inKeyOrder.sort(AGGREGATE_KEY_ORDER);
+        List<Employee> savedEmployees = employeeCounter.track(() -> transactionTemplate.execute(status -> {
+            for (int from = 0; from < inKeyOrder.size(); from += batchChunkSize) {
+                List<Employee> chunk = inKeyOrder.subList(from, Math.min(from + batchChunkSize, inKeyOrder.size()));
+                List<Integer> employeeIds = jdbcRepository.createEmployees(chunk);
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunk.get(i).setEmployeeId(employeeIds.get(i));
+                }
+            }
+            entityCache.lockQueries();
+            return employees;
+        }), List::size);
+        savedEmployees.forEach(nameIndex::put);
+        return savedEmployees;
     }
 
     /**
      * Update employee record in the database.
+     * If the employee has a version, it must match the stored one.
+     * The employee is read in the writing transaction, so on the primary rather than on a replica.
      *
      * @param employee object.
      * @return updated employee.
      */
     public Employee updateEmployee(Employee employee) {
         Integer employeeId = employee.getEmployeeId();
-        Employee employeeToUpdate = jpaRepository.findById(employeeId)
-                .orElseThrow(() -> new ResourceNotFoundException(notFoundForThisIdMessage(employeeId)));
+        Employee savedEmployee = transactionTemplate.execute(status -> {
+            Employee employeeToUpdate = jpaRepository.findById(employeeId)
+                    .orElseThrow(() -> new ResourceNotFoundException(notFoundForThisIdMessage(employeeId)));
+            if (employee.getVersion() != null && !employee.getVersion().equals(employeeToUpdate.getVersion())) {
+                throw new VersionConflictException(versionConflictMessage(employeeId));
+            }
 
-        employeeToUpdate.setFirstName(employee.getFirstName());
-        employeeToUpdate.setLastName(employee.getLastName());
-        employeeToUpdate.setDepartmentId(employee.getDepartmentId());
-        employeeToUpdate.setJobTitle(employee.getJobTitle());
-        employeeToUpdate.setGender(employee.getGender());
-        employeeToUpdate.setDateOfBirth(employee.getDateOfBirth());
+            employeeToUpdate.setFirstName(employee.getFirstName());
+            employeeToUpdate.setLastName(employee.getLastName());
+            employeeToUpdate.setDepartmentId(employee.getDepartmentId());
+            employeeToUpdate.setJobTitle(employee.getJobTitle());
+            employeeToUpdate.setGender(employee.getGender());
+            employeeToUpdate.setDateOfBirth(employee.getDateOfBirth());
 
-        return jpaRepository.save(employeeToUpdate);
+            return jpaRepository.save(employeeToUpdate);
+        });
+        employeesCache().evict(employeeId);
+        nameIndex.put(savedEmployee);
+        return savedEmployee;
+    }
+
+    /**
+     * Change the non-null fields of the employee with one conditional UPDATE, without reading it first.
+     * If the patch has a version, the employee is changed only if it still has this version.
+     *
+     * @param patch employeeId, fields to change and optional expected version.
+     */
+    public void patchEmployee(Employee patch) {
+        Integer employeeId = patch.getEmployeeId();
+        int patched = transactionTemplate.execute(status ->
+                lockWritten(jdbcRepository.patchEmployee(patch), employeeId));
+        if (patched == 0) {
+            if (patch.getVersion() != null && jpaRepository.existsById(employeeId)) {
+                throw new VersionConflictException(versionConflictMessage(employeeId));
+            }
+            throw new ResourceNotFoundException(notFoundForThisIdMessage(employeeId));
+        }
+        employeesCache().evict(employeeId);
+        nameIndex.update(employeeId, patch.getFirstName(), patch.getLastName());
     }
 
     /**
@@ -90,20 +398,185 @@ public class EmployeeService {
      * @param employeeId employee Id.
      */
     public void deleteEmployee(Integer employeeId) {
-        jpaRepository.delete(jpaRepository.findById(employeeId)
-                .orElseThrow(() -> new ResourceNotFoundException(notFoundForThisIdMessage(employeeId))));
+        int deleted = employeeCounter.track(() -> transactionTemplate.execute(status ->
+                lockWritten(jdbcRepository.deleteEmployee(employeeId), employeeId)), rows -> -rows);
+        if (deleted == 0) {
+            throw new ResourceNotFoundException(notFoundForThisIdMessage(employeeId));
+        }
+        employeesCache().evict(employeeId);
+        nameIndex.remove(employeeId);
     }
 
     /**
-     * Get the number of employees in the database.
+     * Delete employees with the given ids with one statement.
+     *
+     * @param employeeIds employee ids.
+     * @return ids of deleted employees, ids of unknown employees are skipped.
+     */
+    public List<Integer> deleteEmployees(Collection<Integer> employeeIds) {
+        return afterDelete(employeeCounter.track(
+                () -> deleteLocked(() -> jdbcRepository.deleteEmployees(employeeIds)), deleted -> -deleted.size()));
+    }
+
+    /**
+     * Delete all employees of the department with one statement.
+     *
+     * @param departmentId department Id.
+     * @return ids of deleted employees.
+     */
+    public List<Integer> deleteEmployeesByDepartment(Integer departmentId) {
+        return afterDelete(employeeCounter.track(
+                () -> deleteLocked(() -> jdbcRepository.deleteEmployeesByDepartment(departmentId)),
+                deleted -> -deleted.size()));
+    }
+
+    /**
+     * Get the number of employees in the database, as maintained by {@link EmployeeCounter}.
      *
      * @return the number of employees in the database.
      */
     public Integer getEmployeesCount() {
-        return Math.toIntExact(jpaRepository.count());
+        return Math.toIntExact(employeeCounter.get());
+    }
+
+    /**
+     * Get headcounts of employees by department, by gender and by age band from the
+     * EMPLOYEE_AGGREGATE table, which the database keeps up to date with every write,
+     * so the cost depends on the number of departments rather than of employees.
+     * The age is counted in whole years as the current year minus the year of birth.
+     *
+     * @return employee aggregates.
+     */
+    @Transactional(readOnly = true)
+    public EmployeeAggregates getEmployeeAggregates() {
+        int currentYear = Year.now().getValue();
+        long total = 0;
+        Map<Integer, Long> byDepartment = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        Map<Gender, Long> byGender = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        Map<Integer, Long> byAgeBand = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        for (EmployeeHeadcount headcount : jdbcRepository.findHeadcounts()) {
+            total += headcount.getHeadcount();
+            byDepartment.merge(headcount.getDepartmentId(), headcount.getHeadcount(), Long::sum);
+            byGender.merge(headcount.getGender(), headcount.getHeadcount(), Long::sum);
+            Integer band = headcount.getBirthYear() == null
+                    ? null : ageBand(currentYear - headcount.getBirthYear());
+            byAgeBand.merge(band, headcount.getHeadcount(), Long::sum);
+        }
+        return new EmployeeAggregates(total,
+                withNamedKeys(byDepartment, Objects::toString),
+                withNamedKeys(byGender, Gender::name),
+                withNamedKeys(byAgeBand, this::ageBandName));
+    }
+
+    /**
+     * @return index of the age band, -1 if younger than the first one.
+     */
+    private int ageBand(int age) {
+        int band = -1;
+        while (band + 1 < ageBands.length && age >= ageBands[band + 1]) {
+            band++;
+        }
+        return band;
+    }
+
+    private String ageBandName(int band) {
+        if (band < 0) {
+            return "0-" + (ageBands[0] - 1);
+        }
+        if (band == ageBands.length - 1) {
+            return ageBands[band] + "+";
+        }
+        return ageBands[band] + "-" + (ageBands[band + 1] - 1);
+    }
+
+    private static <K> Map<String, Long> withNamedKeys(Map<K, Long> headcounts, Function<K, String> name) {
+        Map<String, Long> named = new LinkedHashMap<>();
+        headcounts.forEach((key, headcount) ->
+                named.put(key == null ? EmployeeAggregates.UNKNOWN : name.apply(key), headcount));
+        return named;
+    }
+
+    /**
+     * Lock the employee in the second-level cache until the writing transaction completes, if it was written.
+     *
+     * @return written rows.
+     */
+    private int lockWritten(int rows, Integer employeeId) {
+        if (rows > 0) {
+            entityCache.lock(List.of(employeeId));
+        }
+        return rows;
+    }
+
+    /**
+     * Delete in a transaction that locks the deleted employees in the second-level cache until it completes.
+     */
+    private List<Integer> deleteLocked(Supplier<List<Integer>> delete) {
+        return transactionTemplate.execute(status -> {
+            List<Integer> deletedIds = delete.get();
+            if (!deletedIds.isEmpty()) {
+                entityCache.lock(deletedIds);
+            }
+            return deletedIds;
+        });
+    }
+
+    /**
+     * Evicts the deleted ids one by one rather than clearing the cache,
+     * since only an eviction of the id waits for a load of it in progress.
+     */
+    private List<Integer> afterDelete(List<Integer> deletedIds) {
+        Cache employeesCache = employeesCache();
+        deletedIds.forEach(employeesCache::evict);
+        deletedIds.forEach(nameIndex::remove);
+        return deletedIds;
+    }
+
+    private Cache employeesCache() {
+        return Objects.requireNonNull(cacheManager.getCache(EMPLOYEES_CACHE), "No employees cache");
+    }
+
+    private EmployeeSort parseSort(String sort) {
+        if (sort == null) {
+            return EmployeeSort.DEFAULT;
+        }
+        try {
+            return EmployeeSort.parse(sort);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage());
+        }
+    }
+
+    private Set<EmployeeField> parseFields(String fields) {
+        try {
+            return EmployeeField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException(e.getMessage());
+        }
+    }
+
+    private static EmployeeProjection projection(Tuple tuple, Set<EmployeeField> fields, Integer version) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (EmployeeField field : fields) {
+            values.put(field.getParameterName(), tuple.get(field.getParameterName()));
+        }
+        return new EmployeeProjection(values, version);
     }
 
     private String notFoundForThisIdMessage(Integer employeeId) {
         return String.format("No employee with id %s exists!", employeeId);
     }
-}
\ No newline at end of file
+
+    private String versionConflictMessage(Integer employeeId) {
+        return String.format("Employee with id %s was changed by someone else!", employeeId);
+    }
+
+    @FunctionalInterface
+    private interface PageQuery<T> {
+
+        /**
+         * @param employeeIds ids to choose from, null to filter by name.
+         */
+        List<T> find(Collection<Integer> employeeIds, EmployeeSort sort, Object afterValue, Integer afterId, int limit);
+    }
+}
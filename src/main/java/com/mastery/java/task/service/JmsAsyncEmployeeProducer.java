@@ -0,0 +1,182 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.metrics.JmsMetrics;
+import com.mastery.java.task.rest.excepton_handling.QueueFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.mastery.java.task.config.JmsConfig.ASYNC_PRODUCER_MODE;
+
+/**
+ * Sends employees to employee-queue from its own thread, so callers only wait for the hand-over.
+ * Employees sent within linger time are packed into one message of up to batch-size employees,
+ * per department if employees of a department are sent as a message group.
+ * Callers are blocked once max-pending employees wait to be sent, so a slow broker slows them
+ * down instead of filling the memory, and are refused after max-block time.
+ * Delivery is at-most-once for the caller: employees pending at a crash are lost,
+ * failed sends are logged and counted in employees.jms.send.failed.
+ *
+ * @author Sergey Tsynin
+ */
+@Service
+@ConditionalOnProperty(name = "employees.jms.producer.mode", havingValue = ASYNC_PRODUCER_MODE)
+public class JmsAsyncEmployeeProducer implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsAsyncEmployeeProducer.class);
+
+    @Autowired
+    private JmsTemplate jmsTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employees.jms.producer.batch-size:100}")
+    private int batchSize;
+
+    @Value("${employees.jms.producer.linger-ms:5}")
+    private long linger;
+
+    @Value("${employees.jms.producer.max-block-ms:1000}")
+    private long maxBlock;
+
+    @Value("${employees.jms.producer.shutdown-timeout-ms:10000}")
+    private long shutdownTimeout;
+
+    @Value("${employees.jms.producer.group-by-department:false}")
+    private boolean groupByDepartment;
+
+    private final Semaphore pendingPermits;
+
+    private final ScheduledExecutorService sender =
+            Executors.newSingleThreadScheduledExecutor(task -> new Thread(task, "employee-producer"));
+
+    /**
+     * Batches being filled by message group, the ungrouped one under null. Guarded by this.
+     */
+    private final Map<String, Batch> pending = new HashMap<>();
+
+    public JmsAsyncEmployeeProducer(@Value("${employees.jms.producer.max-pending:10000}") int maxPending) {
+        pendingPermits = new Semaphore(maxPending);
+        LOGGER.debug("JMS async producer was created");
+    }
+
+    /**
+     * Queue the employee for sending.
+     *
+     * @param employee employee to send.
+     * @return future completed when the message with the employee was sent,
+     * already failed with {@link QueueFullException} if there was no room for the employee in max-block time.
+     */
+    public CompletableFuture<Void> send(Employee employee) {
+        try {
+            if (!pendingPermits.tryAcquire(maxBlock, TimeUnit.MILLISECONDS)) {
+                return CompletableFuture.failedFuture(
+                        new QueueFullException("Employee producer is full, try again later"));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(new QueueFullException("Interrupted while queueing the employee"));
+        }
+        String group = groupByDepartment ? JmsEmployeeService.messageGroup(employee) : null;
+        Batch full = null;
+        CompletableFuture<Void> sent;
+        synchronized (this) {
+            Batch batch = pending.get(group);
+            if (batch == null) {
+                Batch newBatch = new Batch(group);
+                batch = newBatch;
+                pending.put(group, batch);
+                if (batchSize > 1) {
+                    sender.schedule(() -> flush(newBatch), linger, TimeUnit.MILLISECONDS);
+                }
+            }
+            batch.employees.add(employee);
+            sent = batch.sent;
+            if (batch.employees.size() >= batchSize) {
+                full = batch;
+                pending.remove(group);
+            }
+        }
+        if (full != null) {
+            Batch batch = full;
+            sender.execute(() -> sendBatch(batch));
+        }
+        return sent;
+    }
+
+    /**
+     * Send what is pending and wait until it was sent.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        List<Batch> batches;
+        synchronized (this) {
+            batches = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (Batch batch : batches) {
+            sender.execute(() -> sendBatch(batch));
+        }
+        sender.shutdown();
+        if (!sender.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+            LOGGER.error("Employee producer did not finish sending in {} ms", shutdownTimeout);
+        }
+    }
+
+    private void flush(Batch batch) {
+        synchronized (this) {
+            if (!pending.remove(batch.group, batch)) {
+                return;
+            }
+        }
+        sendBatch(batch);
+    }
+
+    private void sendBatch(Batch batch) {
+        List<Employee> employees = batch.employees;
+        Object payload = employees.size() == 1 ? employees.get(0) : employees.toArray(new Employee[0]);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            JmsEmployeeService.send(jmsTemplate, payload, batch.group);
+            sample.stop(meterRegistry.timer(JmsMetrics.SEND_TIMER));
+            meterRegistry.summary(JmsMetrics.SEND_EMPLOYEES_SUMMARY).record(employees.size());
+            batch.sent.complete(null);
+        } catch (RuntimeException e) {
+            LOGGER.error("Message with {} employee(s) was not sent", employees.size(), e);
+            meterRegistry.counter(JmsMetrics.SEND_FAILED_COUNTER).increment(employees.size());
+            batch.sent.completeExceptionally(e);
+        } finally {
+            pendingPermits.release(employees.size());
+        }
+    }
+
+    private static final class Batch {
+
+        private final String group;
+        private final List<Employee> employees = new ArrayList<>();
+        private final CompletableFuture<Void> sent = new CompletableFuture<>();
+
+        private Batch(String group) {
+            this.group = group;
+        }
+    }
+}
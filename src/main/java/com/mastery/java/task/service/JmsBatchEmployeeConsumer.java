@@ -0,0 +1,211 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.metrics.JmsMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+import org.springframework.stereotype.Service;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mastery.java.task.config.JmsConfig.BATCH_CONSUMER_MODE;
+import static com.mastery.java.task.config.JmsConfig.EMPLOYEE_QUEUE;
+
+/**
+ * Drains employee-queue in batches: takes up to batch-size messages or whatever arrived
+ * within batch-timeout, saves their employees with one batch insert and commits the JMS session once.
+ * Messages that cannot be converted, fail validation or are rejected by the database
+ * go to the dead letter queue, so one bad message does not poison the batch.
+ * Delivery is at-least-once: a crash between the database and the JMS commit redelivers the batch.
+ *
+ * @author Sergey Tsynin
+ */
+@Service
+@ConditionalOnProperty(name = "employees.jms.consumer.mode", havingValue = BATCH_CONSUMER_MODE)
+public class JmsBatchEmployeeConsumer implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsBatchEmployeeConsumer.class);
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private MessageConverter messageConverter;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employees.jms.consumer.batch-size:500}")
+    private int batchSize;
+
+    @Value("${employees.jms.consumer.batch-timeout-ms:100}")
+    private long batchTimeout;
+
+    @Value("${employees.jms.consumer.recovery-interval-ms:5000}")
+    private long recoveryInterval;
+
+    @Value("${employees.jms.consumer.dead-letter-queue:DLQ." + EMPLOYEE_QUEUE + "}")
+    private String deadLetterQueue;
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    public JmsBatchEmployeeConsumer() {
+        LOGGER.debug("JMS batch consumer was created");
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::consume, "employee-batch-consumer");
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            worker.join(batchTimeout * 2 + recoveryInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void consume() {
+        while (running) {
+            try (Connection connection = connectionFactory.createConnection()) {
+                connection.start();
+                Session session = connection.createSession(true, Session.SESSION_TRANSACTED);
+                MessageConsumer consumer = session.createConsumer(session.createQueue(EMPLOYEE_QUEUE));
+                MessageProducer deadLetters = session.createProducer(session.createQueue(deadLetterQueue));
+                while (running) {
+                    List<Message> messages = receiveBatch(consumer);
+                    if (!messages.isEmpty()) {
+                        processBatch(session, deadLetters, messages);
+                    }
+                }
+            } catch (JMSException | RuntimeException e) {
+                LOGGER.error("Batch consumer failed, restarting in {} ms", recoveryInterval, e);
+                pause();
+            }
+        }
+    }
+
+    /**
+     * Wait up to batch-timeout for the first message, then take whatever arrives
+     * until the batch is full or the timeout expires.
+     */
+    List<Message> receiveBatch(MessageConsumer consumer) throws JMSException {
+        List<Message> messages = new ArrayList<>();
+        Message message = consumer.receive(batchTimeout);
+        long deadline = System.currentTimeMillis() + batchTimeout;
+        while (message != null) {
+            messages.add(message);
+            if (messages.size() >= batchSize) {
+                break;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            message = remaining > 0 ? consumer.receive(remaining) : consumer.receiveNoWait();
+        }
+        return messages;
+    }
+
+    /**
+     * Save employees of the batch and commit the session. Database errors other than
+     * rejected rows propagate, so the session is rolled back and the batch is redelivered.
+     */
+    void processBatch(Session session, MessageProducer deadLetters, List<Message> messages) throws JMSException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<Message> accepted = new ArrayList<>(messages.size());
+        List<List<Employee>> employeesOfMessages = new ArrayList<>(messages.size());
+        List<Employee> employees = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            List<Employee> messageEmployees = toValidEmployees(message);
+            if (messageEmployees == null) {
+                deadLetters.send(message);
+            } else {
+                accepted.add(message);
+                employeesOfMessages.add(messageEmployees);
+                employees.addAll(messageEmployees);
+            }
+        }
+
+        if (!employees.isEmpty()) {
+            try {
+                employeeService.createEmployees(employees);
+            } catch (DataIntegrityViolationException e) {
+                LOGGER.warn("Batch of {} employee(s) was rejected, saving them message by message", employees.size(), e);
+                for (int i = 0; i < accepted.size(); i++) {
+                    try {
+                        employeeService.createEmployees(employeesOfMessages.get(i));
+                    } catch (DataIntegrityViolationException messageException) {
+                        LOGGER.error("Employees were rejected - {}", employeesOfMessages.get(i), messageException);
+                        deadLetters.send(accepted.get(i));
+                    }
+                }
+            }
+        }
+        session.commit();
+        sample.stop(meterRegistry.timer(JmsMetrics.PROCESS_TIMER, "consumer", BATCH_CONSUMER_MODE));
+        for (Message message : accepted) {
+            JmsMetrics.recordLag(meterRegistry, message.getJMSTimestamp());
+        }
+        LOGGER.debug("Batch of {} message(s) was consumed", messages.size());
+    }
+
+    /**
+     * @return employees of the message, or null if some of them is invalid.
+     */
+    private List<Employee> toValidEmployees(Message message) throws JMSException {
+        try {
+            List<Employee> employees = JmsEmployeeService.employeesOf(messageConverter.fromMessage(message));
+            if (employees.stream().allMatch(employee -> validator.validate(employee).isEmpty())) {
+                return employees;
+            }
+            LOGGER.error("Wrong employee message - {}", employees);
+        } catch (MessageConversionException | ValidationException e) {
+            LOGGER.error("Wrong employee message - [{}]", message.getJMSMessageID(), e);
+        }
+        return null;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(recoveryInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -1,14 +1,28 @@
 package com.mastery.java.task.service;
 
-import com.mastery.java.task.dao.EmployeeJpaRepository;
 import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.metrics.JmsMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jms.annotation.JmsListener;
 import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.JmsHeaders;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.mastery.java.task.config.JmsConfig.EMPLOYEE_QUEUE;
+import static com.mastery.java.task.config.JmsConfig.MESSAGE_GROUP_PROPERTY;
+import static com.mastery.java.task.config.JmsConfig.SINGLE_CONSUMER_MODE;
+
 /**
  * @author Sergey Tsynin
  */
@@ -25,16 +39,93 @@ public class JmsEmployeeService {
     private JmsTemplate jmsTemplate;
 
     @Autowired
-    private EmployeeJpaRepository jpaRepository;
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private JmsAsyncEmployeeProducer asyncProducer;
+
+    @Value("${employees.jms.producer.group-by-department:false}")
+    private boolean groupByDepartment;
 
-    @JmsListener(destination = "employee-queue")
-    public void receiveEmployee(Employee employee) {
-        LOGGER.info(" IN: receiveEmployee() - [{}]", employee);
-        jpaRepository.save(employee);
+    /**
+     * Save the employee or the employees packed into the message.
+     *
+     * @param message   message with an employee or an array of employees.
+     * @param timestamp JMSTimestamp of the message.
+     */
+    @JmsListener(destination = EMPLOYEE_QUEUE)
+    public void receiveEmployees(Message<?> message, @Header(JmsHeaders.TIMESTAMP) long timestamp) {
+        List<Employee> employees = employeesOf(message.getPayload());
+        LOGGER.info(" IN: receiveEmployees() - {} employee(s) in message [{}]",
+                employees.size(), message.getHeaders().get(JmsHeaders.MESSAGE_ID));
+        LOGGER.debug("receiveEmployees() - {}", employees);
+        meterRegistry.timer(JmsMetrics.PROCESS_TIMER, "consumer", SINGLE_CONSUMER_MODE).record(() -> {
+            if (employees.size() == 1) {
+                employeeService.createEmployee(employees.get(0));
+            } else {
+                employeeService.createEmployees(employees);
+            }
+        });
+        JmsMetrics.recordLag(meterRegistry, timestamp);
     }
 
-    public void sendEmployee(Employee employee) {
+    /**
+     * Send the employee to employee-queue, in the calling thread or by the async producer.
+     *
+     * @param employee employee to send.
+     * @return future completed when the employee was sent.
+     */
+    public CompletableFuture<Void> sendEmployee(Employee employee) {
         LOGGER.info(" IN: sendEmployee() - [{}]", employee);
-        jmsTemplate.convertAndSend("employee-queue", employee);
+        if (asyncProducer != null) {
+            return asyncProducer.send(employee);
+        }
+        String group = groupByDepartment ? messageGroup(employee) : null;
+        meterRegistry.timer(JmsMetrics.SEND_TIMER).record(() -> send(jmsTemplate, employee, group));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * @param employee employee to send.
+     * @return message group of the employee department, null if it has no department.
+     */
+    static String messageGroup(Employee employee) {
+        return employee.getDepartmentId() == null ? null : "department-" + employee.getDepartmentId();
+    }
+
+    /**
+     * Send the payload to employee-queue.
+     *
+     * @param jmsTemplate JMS template.
+     * @param payload     employee or array of employees.
+     * @param group       message group or null for none.
+     */
+    static void send(JmsTemplate jmsTemplate, Object payload, String group) {
+        if (group == null) {
+            jmsTemplate.convertAndSend(EMPLOYEE_QUEUE, payload);
+        } else {
+            jmsTemplate.convertAndSend(EMPLOYEE_QUEUE, payload, message -> {
+                message.setStringProperty(MESSAGE_GROUP_PROPERTY, group);
+                return message;
+            });
+        }
+    }
+
+    /**
+     * @param payload converted employee-queue message.
+     * @return employees of the message.
+     * @throws MessageConversionException if the message is neither an employee nor packed employees.
+     */
+    static List<Employee> employeesOf(Object payload) {
+        if (payload instanceof Employee) {
+            return List.of((Employee) payload);
+        }
+        if (payload instanceof Employee[]) {
+            return Arrays.asList((Employee[]) payload);
+        }
+        throw new MessageConversionException("Not an employee message - [" + payload + "]");
     }
 }
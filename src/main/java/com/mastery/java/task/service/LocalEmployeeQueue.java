@@ -0,0 +1,348 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.metrics.LocalQueueMetrics;
+import com.mastery.java.task.rest.excepton_handling.QueueFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static com.mastery.java.task.config.JmsConfig.LOCAL_TRANSPORT;
+
+/**
+ * In-process employee-queue of a single node, used instead of the broker with employees.queue.transport=local.
+ * Queued employees wait in a bounded buffer. The journal thread writes all of them that gathered
+ * meanwhile to the journal with one fsync (group commit) and only then lets their callers go.
+ * The commit thread saves journaled employees with batch inserts of up to batch-size employees
+ * in one transaction and moves the journal checkpoint past them.
+ * Capacity bounds the employees not saved yet, callers wait at most enqueue-timeout for room,
+ * so a slow database slows producers down instead of filling the memory.
+ * Delivery is at-least-once: employees journaled but not saved at a crash or stop are saved
+ * on the next start, the ones saved just before a crash may be saved twice.
+ *
+ * @author Sergey Tsynin
+ */
+@Service
+@ConditionalOnProperty(name = "employees.queue.transport", havingValue = LOCAL_TRANSPORT)
+public class LocalEmployeeQueue implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalEmployeeQueue.class);
+
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employees.queue.local.journal-dir:data/employee-queue}")
+    private String journalDirectory;
+
+    @Value("${employees.queue.local.segment-size-mb:64}")
+    private long segmentSize;
+
+    @Value("${employees.queue.local.fsync:true}")
+    private boolean fsync;
+
+    @Value("${employees.queue.local.batch-size:500}")
+    private int batchSize;
+
+    @Value("${employees.queue.local.enqueue-timeout-ms:1000}")
+    private long enqueueTimeout;
+
+    @Value("${employees.queue.local.recovery-interval-ms:5000}")
+    private long recoveryInterval;
+
+    @Value("${employees.queue.local.shutdown-timeout-ms:10000}")
+    private long shutdownTimeout;
+
+    private final int capacity;
+
+    /**
+     * One permit per employee that may be queued and not saved yet.
+     */
+    private final Semaphore permits;
+
+    private final BlockingQueue<Pending> buffer;
+
+    private final BlockingQueue<Journaled> journaled = new LinkedBlockingQueue<>();
+
+    private EmployeeJournal journal;
+
+    private volatile boolean running;
+
+    private Thread journalWriter;
+
+    private Thread committer;
+
+    public LocalEmployeeQueue(@Value("${employees.queue.local.capacity:10000}") int capacity) {
+        this.capacity = capacity;
+        permits = new Semaphore(capacity);
+        buffer = new ArrayBlockingQueue<>(capacity);
+        LOGGER.debug("Local employee queue was created");
+    }
+
+    /**
+     * Queue the employee and wait until it is in the journal.
+     *
+     * @param employee employee to save.
+     * @throws QueueFullException if there was no room for the employee or the journal did not take it in time.
+     */
+    public void send(Employee employee) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(enqueueTimeout);
+        try {
+            if (!running || !permits.tryAcquire(enqueueTimeout, TimeUnit.MILLISECONDS)) {
+                throw new QueueFullException("Employee queue is full, try again later");
+            }
+            Pending pending = new Pending(employee);
+            buffer.add(pending);
+            pending.journaled.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueueFullException("Interrupted while queueing the employee");
+        } catch (TimeoutException e) {
+            throw new QueueFullException("Employee was not journaled in " + enqueueTimeout + " ms, it may still be saved");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Employee was not journaled", e.getCause());
+        }
+    }
+
+    /**
+     * Save what the journal has after the checkpoint, then start taking employees.
+     */
+    @Override
+    public void start() {
+        try {
+            journal = new EmployeeJournal(Path.of(journalDirectory), segmentSize * 1024 * 1024);
+            replay();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Employee journal could not be opened", e);
+        }
+        meterRegistry.gauge(LocalQueueMetrics.PENDING_GAUGE, permits,
+                queuePermits -> capacity - queuePermits.availablePermits());
+        running = true;
+        journalWriter = new Thread(this::writeJournal, "employee-journal");
+        committer = new Thread(this::commitJournaled, "employee-committer");
+        journalWriter.start();
+        committer.start();
+    }
+
+    /**
+     * Journal and save what was queued, leaving what could not be saved in time for the next start.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            journalWriter.join(shutdownTimeout);
+            committer.join(shutdownTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOGGER.error("Employee journal was not closed", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Start before the web server takes requests and stop after it stopped.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE - 2;
+    }
+
+    private void replay() throws IOException {
+        long position = journal.getCheckpoint();
+        int replayed = 0;
+        while (position < journal.getEnd()) {
+            List<Employee> employees = new ArrayList<>(batchSize);
+            long next = journal.read(position, batchSize, employees);
+            if (!employees.isEmpty() && !save(employees)) {
+                throw new IllegalStateException("Journaled employees could not be saved");
+            }
+            journal.commit(next);
+            position = next;
+            replayed += employees.size();
+        }
+        if (replayed > 0) {
+            LOGGER.info("{} journaled employee(s) were saved", replayed);
+        }
+    }
+
+    private void writeJournal() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                Pending first = buffer.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - 1);
+                    journal(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Write the batch with one append and one fsync, then let its callers go.
+     * A batch that failed is cut off the journal, so it is not saved after its callers were told it was not.
+     */
+    private void journal(List<Pending> batch) {
+        List<Employee> employees = batch.stream().map(pending -> pending.employee).collect(Collectors.toList());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            long end = journal.append(employees, fsync);
+            sample.stop(meterRegistry.timer(LocalQueueMetrics.JOURNAL_TIMER));
+            meterRegistry.summary(LocalQueueMetrics.JOURNAL_EMPLOYEES_SUMMARY).record(employees.size());
+            journaled.add(new Journaled(new ArrayList<>(batch), end));
+            batch.forEach(pending -> pending.journaled.complete(null));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("{} employee(s) were not journaled", employees.size(), e);
+            permits.release(employees.size());
+            batch.forEach(pending -> pending.journaled.completeExceptionally(e));
+        }
+    }
+
+    private void commitJournaled() {
+        while (running || journalWriter.isAlive() || !journaled.isEmpty()) {
+            try {
+                Journaled first = journaled.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Journaled> batches = new ArrayList<>();
+                batches.add(first);
+                int size = first.pendings.size();
+                Journaled next;
+                while ((next = journaled.peek()) != null && size + next.pendings.size() <= batchSize) {
+                    batches.add(journaled.remove());
+                    size += next.pendings.size();
+                }
+                if (!commit(batches)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Save the batches, retrying until the database takes them, and move the checkpoint past them.
+     *
+     * @return false if the queue was stopped before they were saved, they stay in the journal then.
+     */
+    private boolean commit(List<Journaled> batches) throws InterruptedException {
+        List<Pending> pendings = batches.stream()
+                .flatMap(batch -> batch.pendings.stream())
+                .collect(Collectors.toList());
+        List<Employee> employees = pendings.stream().map(pending -> pending.employee).collect(Collectors.toList());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        while (!save(employees)) {
+            if (!running) {
+                return false;
+            }
+            Thread.sleep(recoveryInterval);
+        }
+        sample.stop(meterRegistry.timer(LocalQueueMetrics.COMMIT_TIMER));
+        meterRegistry.summary(LocalQueueMetrics.COMMIT_EMPLOYEES_SUMMARY).record(employees.size());
+        try {
+            journal.commit(batches.get(batches.size() - 1).end);
+        } catch (IOException e) {
+            LOGGER.error("Journal checkpoint was not moved, {} employee(s) will be saved again on the next start",
+                    employees.size(), e);
+        }
+        permits.release(employees.size());
+        Timer lag = meterRegistry.timer(LocalQueueMetrics.LAG_TIMER);
+        long now = System.nanoTime();
+        pendings.forEach(pending -> lag.record(now - pending.queuedAt, TimeUnit.NANOSECONDS));
+        return true;
+    }
+
+    /**
+     * Save the employees with one batch insert, or one by one if the database rejects the batch,
+     * skipping the rejected ones.
+     *
+     * @return false if the database failed otherwise.
+     */
+    private boolean save(List<Employee> employees) {
+        try {
+            try {
+                employeeService.createEmployees(employees);
+            } catch (DataIntegrityViolationException e) {
+                LOGGER.warn("Batch of {} employee(s) was rejected, saving them one by one", employees.size(), e);
+                for (Employee employee : employees) {
+                    try {
+                        employeeService.createEmployees(List.of(employee));
+                    } catch (DataIntegrityViolationException employeeException) {
+                        LOGGER.error("Employee was rejected - {}", employee, employeeException);
+                        meterRegistry.counter(LocalQueueMetrics.REJECTED_COUNTER).increment();
+                    }
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.error("Batch of {} employee(s) was not saved, retrying in {} ms",
+                    employees.size(), recoveryInterval, e);
+            return false;
+        }
+    }
+
+    private static final class Pending {
+
+        private final Employee employee;
+        private final long queuedAt = System.nanoTime();
+        private final CompletableFuture<Void> journaled = new CompletableFuture<>();
+
+        private Pending(Employee employee) {
+            this.employee = employee;
+        }
+    }
+
+    private static final class Journaled {
+
+        private final List<Pending> pendings;
+        private final long end;
+
+        private Journaled(List<Pending> pendings, long end) {
+            this.pendings = pendings;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.mastery.java.task.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: the first caller of a query with a key runs it,
+ * callers arriving while it runs wait for its result or exception instead of running their own.
+ * A caller waits at most timeout-ms and then runs the query itself.
+ * Calls are counted in employees.single-flight.calls by query and outcome,
+ * the share of "follower" calls is the share of database queries saved.
+ *
+ * @author Sergey Tsynin
+ */
+@Component
+public class SingleFlight {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlight.class);
+
+    public static final String CALLS_COUNTER = "employees.single-flight.calls";
+
+    static final String LEADER = "leader";
+    static final String FOLLOWER = "follower";
+    static final String TIMEOUT = "timeout";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${employees.single-flight.timeout-ms:1000}")
+    private long timeout;
+
+    private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    public SingleFlight() {
+        LOGGER.debug("Single flight was created");
+    }
+
+    SingleFlight(MeterRegistry meterRegistry, long timeout) {
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Run the query or join the same one already running.
+     *
+     * @param query  query name.
+     * @param key    query parameters, compared with equals.
+     * @param loader query.
+     * @param <T>    query result type.
+     * @return query result.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String query, Object key, Supplier<T> loader) {
+        List<Object> flightKey = List.of(query, key);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leading = inFlight.putIfAbsent(flightKey, flight);
+        if (leading == null) {
+            count(query, LEADER);
+            try {
+                T result = loader.get();
+                flight.complete(result);
+                return result;
+            } catch (RuntimeException | Error e) {
+                flight.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(flightKey, flight);
+            }
+        }
+
+        try {
+            Object result = leading.get(timeout, TimeUnit.MILLISECONDS);
+            count(query, FOLLOWER);
+            return (T) result;
+        } catch (ExecutionException e) {
+            count(query, FOLLOWER);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw (Error) e.getCause();
+        } catch (TimeoutException e) {
+            count(query, TIMEOUT);
+            LOGGER.debug("{} - [{}] did not finish in {} ms, running it again", query, key, timeout);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + query, e);
+        }
+    }
+
+    private void count(String query, String outcome) {
+        meterRegistry.counter(CALLS_COUNTER, "query", query, "outcome", outcome).increment();
+    }
+}
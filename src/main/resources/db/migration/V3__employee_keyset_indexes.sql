@@ -0,0 +1,2 @@
+CREATE INDEX EMPLOYEE_FIRST_NAME_ID_IDX ON EMPLOYEE (FIRST_NAME, EMPLOYEE_ID);
+CREATE INDEX EMPLOYEE_LAST_NAME_ID_IDX ON EMPLOYEE (LAST_NAME, EMPLOYEE_ID);
@@ -0,0 +1 @@
+ALTER TABLE EMPLOYEE ADD COLUMN VERSION INT NOT NULL DEFAULT 0;
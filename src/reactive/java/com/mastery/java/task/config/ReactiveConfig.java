@@ -0,0 +1,103 @@
+package com.mastery.java.task.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mastery.java.task.rest.ReactiveEmployeeHandler;
+import com.mastery.java.task.rest.excepton_handling.InvalidParameterException;
+import com.mastery.java.task.rest.excepton_handling.ResourceNotFoundException;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive read path, switched on by the "reactive" profile. The read endpoints of EmployeeController
+ * are served by WebFlux handlers on a separate Reactor Netty server, reading through R2DBC,
+ * while the servlet stack keeps serving everything else.
+ * R2DBC auto-configuration is excluded in MainApp, and the R2DBC connection pool is kept
+ * out of the context: a ConnectionFactory bean would switch off the JDBC DataSource
+ * auto-configuration and bring a transaction manager competing with the JPA one.
+ *
+ * @author Sergey Tsynin
+ */
+@Configuration
+@Profile(ReactiveConfig.REACTIVE_PROFILE)
+public class ReactiveConfig implements DisposableBean {
+
+    public static final String REACTIVE_PROFILE = "reactive";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveConfig.class);
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public DatabaseClient databaseClient(
+            @Value("${spring.r2dbc.url}") String url,
+            @Value("${spring.r2dbc.username}") String username,
+            @Value("${spring.r2dbc.password}") String password,
+            @Value("${spring.r2dbc.pool.max-size:10}") int maxSize) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build());
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveEmployeeRoutes(ReactiveEmployeeHandler handler) {
+        return RouterFunctions.route()
+                .GET("/employees/count", handler::getEmployeesCount)
+                .GET("/employees/{id}", handler::getEmployeeById)
+                .GET("/employees", handler::getEmployeesList)
+                .onError(ResourceNotFoundException.class, (e, request) -> errorResponse(HttpStatus.NOT_FOUND, e))
+                .onError(InvalidParameterException.class, (e, request) -> errorResponse(HttpStatus.BAD_REQUEST, e))
+                .build();
+    }
+
+    @Bean
+    public ReactiveEmployeeServer reactiveServer(RouterFunction<ServerResponse> reactiveEmployeeRoutes,
+                                                 ObjectMapper objectMapper,
+                                                 @Value("${employees.reactive.port:8089}") int port) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveEmployeeServer(RouterFunctions.toHttpHandler(reactiveEmployeeRoutes, strategies), port);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    private Mono<ServerResponse> errorResponse(HttpStatus status, Throwable exception) {
+        LOGGER.error(exception.getMessage(), exception);
+        return ServerResponse.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .bodyValue(exception.getMessage());
+    }
+}
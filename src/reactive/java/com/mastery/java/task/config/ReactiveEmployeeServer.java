@@ -0,0 +1,68 @@
+package com.mastery.java.task.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Reactor Netty server of the reactive read endpoints, bound when the context has started
+ * and disposed when it stops. Being a lifecycle bean, it is started even with
+ * spring.main.lazy-initialization=true, when nothing else asks for it.
+ *
+ * @author Sergey Tsynin
+ */
+public class ReactiveEmployeeServer implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveEmployeeServer.class);
+
+    private final HttpHandler httpHandler;
+
+    private final int port;
+
+    private volatile DisposableServer server;
+
+    /**
+     * @param httpHandler handler of the reactive endpoints.
+     * @param port        port to listen on, 0 for any free one.
+     */
+    public ReactiveEmployeeServer(HttpHandler httpHandler, int port) {
+        this.httpHandler = httpHandler;
+        this.port = port;
+    }
+
+    @Override
+    public void start() {
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+        LOGGER.info("Reactive employees server started on port {}", server.port());
+    }
+
+    @Override
+    public void stop() {
+        DisposableServer running = server;
+        if (running != null) {
+            running.disposeNow();
+            server = null;
+            LOGGER.info("Reactive employees server stopped");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return port the server listens on, -1 if it is not running.
+     */
+    public int getPort() {
+        DisposableServer running = server;
+        return running == null ? -1 : running.port();
+    }
+}
@@ -0,0 +1,83 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.Gender;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+import static com.mastery.java.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * Non-blocking reads of the EMPLOYEE table through R2DBC, with the statements of sql.properties.
+ *
+ * @author Sergey Tsynin
+ */
+@Repository
+@Profile(REACTIVE_PROFILE)
+@PropertySource("classpath:sql.properties")
+public class EmployeeR2dbcRepository {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Value("${sqlGetEmployeeById}")
+    private String sqlGetEmployeeById;
+
+    @Value("${sqlGetEmployeesPageByName}")
+    private String sqlGetEmployeesPageByName;
+
+    /**
+     * @param employeeId employee Id.
+     * @return employee or empty if there is no such employee.
+     */
+    public Mono<Employee> findById(Integer employeeId) {
+        return databaseClient.sql(sqlGetEmployeeById)
+                .bind("EMPLOYEE_ID", employeeId)
+                .map(this::toEmployee)
+                .one();
+    }
+
+    /**
+     * Get employees whose names contain the given strings, ordered by id,
+     * starting right after the given id.
+     *
+     * @param firstName part of employee firstname, empty for any.
+     * @param lastName  part of employee lastname, empty for any.
+     * @param afterId   id of the last seen employee, 0 for the first page.
+     * @param limit     maximum number of employees to return.
+     * @return employees as they are read.
+     */
+    public Flux<Employee> findPage(String firstName, String lastName, int afterId, int limit) {
+        return databaseClient.sql(sqlGetEmployeesPageByName)
+                .bind("FIRST_NAME", EmployeeKeysetRepositoryImpl.containsPattern(firstName))
+                .bind("LAST_NAME", EmployeeKeysetRepositoryImpl.containsPattern(lastName))
+                .bind("AFTER_ID", afterId)
+                .bind("LIMIT", limit)
+                .map(this::toEmployee)
+                .all();
+    }
+
+    private Employee toEmployee(Row row, RowMetadata metadata) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(row.get("EMPLOYEE_ID", Integer.class));
+        employee.setFirstName(row.get("FIRST_NAME", String.class));
+        employee.setLastName(row.get("LAST_NAME", String.class));
+        employee.setDepartmentId(row.get("DEPARTMENT_ID", Integer.class));
+        employee.setJobTitle(row.get("JOB_TITLE", String.class));
+        String gender = row.get("GENDER", String.class);
+        employee.setGender(gender == null ? null : Gender.valueOf(gender));
+        employee.setDateOfBirth(row.get("DATE_OF_BIRTH", LocalDate.class));
+        employee.setVersion(row.get("VERSION", Integer.class));
+        return employee;
+    }
+}
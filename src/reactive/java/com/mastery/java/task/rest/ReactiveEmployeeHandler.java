@@ -0,0 +1,100 @@
+package com.mastery.java.task.rest;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.rest.excepton_handling.InvalidParameterException;
+import com.mastery.java.task.service.ReactiveEmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import static com.mastery.java.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * WebFlux handlers of the read endpoints of {@link EmployeeController}.
+ * Lists are written as they are read from the database: as a JSON array,
+ * or as newline-delimited JSON if the client accepts application/x-ndjson.
+ * Instead of a cursor, the next page starts after the id of the last employee received.
+ *
+ * @author Sergey Tsynin
+ */
+@Component
+@Profile(REACTIVE_PROFILE)
+public class ReactiveEmployeeHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveEmployeeHandler.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ReactiveEmployeeService reactiveService;
+
+    public ReactiveEmployeeHandler() {
+        LOGGER.debug("Reactive employees handler was created");
+    }
+
+    /**
+     * GET /employees/{id}.
+     */
+    public Mono<ServerResponse> getEmployeeById(ServerRequest request) {
+        return Mono.fromCallable(() -> parseInt(request.pathVariable("id"), "id", 1, Integer.MAX_VALUE))
+                .doOnNext(id -> LOGGER.info(" IN: getEmployeeById() - [{}]", id))
+                .flatMap(reactiveService::getEmployeeById)
+                .doOnNext(employee -> LOGGER.info("OUT: getEmployeeById() - [{}]", employee))
+                .flatMap(employee -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(employee));
+    }
+
+    /**
+     * GET /employees?firstName=&amp;lastName=&amp;afterId=&amp;limit=.
+     */
+    public Mono<ServerResponse> getEmployeesList(ServerRequest request) {
+        return Mono.defer(() -> {
+            String firstName = request.queryParam("firstName").orElse("");
+            String lastName = request.queryParam("lastName").orElse("");
+            int afterId = parseInt(request.queryParam("afterId").orElse("0"), "afterId", 0, Integer.MAX_VALUE);
+            int limit = parseInt(request.queryParam("limit").orElse(String.valueOf(DEFAULT_PAGE_SIZE)),
+                    "limit", 1, MAX_PAGE_SIZE);
+            LOGGER.info(" IN: getEmployeesByName() - [FirstName={}, LastName={}, afterId={}, limit={}]",
+                    firstName, lastName, afterId, limit);
+            MediaType contentType = request.headers().accept().contains(MediaType.APPLICATION_NDJSON)
+                    ? MediaType.APPLICATION_NDJSON
+                    : MediaType.APPLICATION_JSON;
+            return ServerResponse.ok()
+                    .contentType(contentType)
+                    .body(reactiveService.getEmployeesByName(firstName, lastName, afterId, limit), Employee.class);
+        });
+    }
+
+    /**
+     * GET /employees/count.
+     */
+    public Mono<ServerResponse> getEmployeesCount(ServerRequest request) {
+        LOGGER.info(" IN: getEmployeesCount() - []");
+        return reactiveService.getEmployeesCount()
+                .doOnNext(count -> LOGGER.info("OUT: getEmployeesCount() - found {} employee(s)", count))
+                .flatMap(count -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(count));
+    }
+
+    private int parseInt(String value, String name, int min, int max) {
+        try {
+            int result = Integer.parseInt(value);
+            if (result >= min && result <= max) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new InvalidParameterException(String.format("Wrong %s: %s", name, value));
+    }
+}
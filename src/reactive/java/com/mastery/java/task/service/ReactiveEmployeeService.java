@@ -0,0 +1,74 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dao.EmployeeR2dbcRepository;
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.rest.excepton_handling.ResourceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static com.mastery.java.task.config.ReactiveConfig.REACTIVE_PROFILE;
+
+/**
+ * Non-blocking counterpart of the read methods of {@link EmployeeService}.
+ *
+ * @author Sergey Tsynin
+ */
+@Service
+@Profile(REACTIVE_PROFILE)
+public class ReactiveEmployeeService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveEmployeeService.class);
+
+    public ReactiveEmployeeService() {
+        LOGGER.debug("Reactive employees service was created");
+    }
+
+    @Autowired
+    private EmployeeR2dbcRepository r2dbcRepository;
+
+    @Autowired
+    private EmployeeCounter employeeCounter;
+
+    /**
+     * Get employee by employeeId.
+     *
+     * @param employeeId employee Id.
+     * @return employee or ResourceNotFoundException if there is no such employee.
+     */
+    public Mono<Employee> getEmployeeById(Integer employeeId) {
+        return r2dbcRepository.findById(employeeId)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException(
+                        String.format("No employee with id %s exists!", employeeId))));
+    }
+
+    /**
+     * Get one page of employees filtered by firstname and lastname, ordered by id.
+     *
+     * @param firstName part of employee firstname.
+     * @param lastName  part of employee lastname.
+     * @param afterId   id of the last employee of the previous page, 0 for the first page.
+     * @param limit     page size.
+     * @return employees as they are read from the database.
+     */
+    public Flux<Employee> getEmployeesByName(String firstName, String lastName, int afterId, int limit) {
+        return r2dbcRepository.findPage(firstName, lastName, afterId, limit);
+    }
+
+    /**
+     * Get the number of employees, as maintained by {@link EmployeeCounter}.
+     * The counter goes to the database only before its first recount, so it is called
+     * off the event loop.
+     *
+     * @return the number of employees in the database.
+     */
+    public Mono<Integer> getEmployeesCount() {
+        return Mono.fromCallable(() -> Math.toIntExact(employeeCounter.get()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,44 @@
+package com.mastery.java.task.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the prod configuration with the reactive profile, lazy initialization included,
+ * on the test database and broker.
+ *
+ * @author Sergey Tsynin
+ */
+@SpringBootTest(properties = "employees.reactive.port=0")
+@ActiveProfiles({"prod", ReactiveConfig.REACTIVE_PROFILE, "test"})
+class ReactiveConfigTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveConfigTest.class);
+
+    @Autowired
+    ReactiveEmployeeServer reactiveServer;
+
+    @Test
+    void shouldStartReactiveServerWithLazyInitialization() {
+        LOGGER.debug("shouldStartReactiveServerWithLazyInitialization()");
+
+        // given
+        WebTestClient client = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveServer.getPort())
+                .build();
+
+        // when
+        WebTestClient.ResponseSpec response = client.get().uri("/departments").exchange();
+
+        // then
+        assertTrue(reactiveServer.isRunning());
+        response.expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,136 @@
+package com.mastery.java.task.rest;
+
+import com.mastery.java.task.config.ReactiveConfig;
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.rest.excepton_handling.ResourceNotFoundException;
+import com.mastery.java.task.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Sergey Tsynin
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveEmployeeHandlerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveEmployeeHandlerTest.class);
+
+    @InjectMocks
+    ReactiveEmployeeHandler handler;
+
+    @Mock
+    ReactiveEmployeeService reactiveService;
+
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        client = WebTestClient.bindToRouterFunction(new ReactiveConfig().reactiveEmployeeRoutes(handler)).build();
+    }
+
+    @Test
+    void shouldReturnEmployeeById() {
+        LOGGER.debug("shouldReturnEmployeeById()");
+
+        // given
+        when(reactiveService.getEmployeeById(42)).thenReturn(Mono.just(getFakeEmployee(42)));
+
+        // when
+        client.get().uri("/employees/42")
+                .exchange()
+
+                // then
+                .expectStatus().isOk()
+                .expectBody(Employee.class).isEqualTo(getFakeEmployee(42));
+    }
+
+    @Test
+    void shouldReturnNotFoundWithUnknownEmployeeId() {
+        LOGGER.debug("shouldReturnNotFoundWithUnknownEmployeeId()");
+
+        // given
+        when(reactiveService.getEmployeeById(99)).thenReturn(
+                Mono.error(new ResourceNotFoundException("No employee with id 99 exists!")));
+
+        // when
+        client.get().uri("/employees/99")
+                .exchange()
+
+                // then
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("No employee with id 99 exists!");
+    }
+
+    @Test
+    void shouldStreamEmployeesPageAsNdjson() {
+        LOGGER.debug("shouldStreamEmployeesPageAsNdjson()");
+
+        // given
+        when(reactiveService.getEmployeesByName("", "Pan", 7, 2))
+                .thenReturn(Flux.just(getFakeEmployee(8), getFakeEmployee(9)));
+
+        // when
+        client.get().uri("/employees?lastName=Pan&afterId=7&limit=2")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+
+                // then
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Employee.class).hasSize(2).contains(getFakeEmployee(8), getFakeEmployee(9));
+    }
+
+    @Test
+    void shouldReturnErrorWithTooBigPageSize() {
+        LOGGER.debug("shouldReturnErrorWithTooBigPageSize()");
+
+        // when
+        client.get().uri("/employees?limit=1001")
+                .exchange()
+
+                // then
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Wrong limit: 1001");
+        verify(reactiveService, never()).getEmployeesByName(anyString(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void shouldReturnEmployeesCount() {
+        LOGGER.debug("shouldReturnEmployeesCount()");
+
+        // given
+        when(reactiveService.getEmployeesCount()).thenReturn(Mono.just(3));
+
+        // when
+        client.get().uri("/employees/count")
+                .exchange()
+
+                // then
+                .expectStatus().isOk()
+                .expectBody(Integer.class).isEqualTo(3);
+    }
+
+    private Employee getFakeEmployee(Integer id) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        employee.setFirstName("Peter" + id);
+        employee.setLastName("Pan" + id);
+        return employee;
+    }
+}
@@ -0,0 +1,67 @@
+package com.mastery.java.task.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mastery.java.task.service.EmployeeService;
+import com.mastery.java.task.service.JmsEmployeeService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Not a unit test: generates the Swagger spec served by StaticApiDocsConfig from the controllers.
+ * Run by the api-docs execution of surefire before the jar is packaged, it writes the spec
+ * to the api-docs.file system property.
+ *
+ * @author Sergey Tsynin
+ */
+@WebMvcTest
+@Import(SpringFoxConfig.class)
+class ApiDocsGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApiDocsGenerator.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @MockBean
+    private JmsEmployeeService jmsEmployeeService;
+
+    @Test
+    void generateApiDocs() throws Exception {
+        LOGGER.debug("generateApiDocs()");
+
+        // when
+        String apiDocs = mockMvc.perform(get(StaticApiDocsConfig.API_DOCS_PATH))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        // then
+        ObjectNode spec = (ObjectNode) objectMapper.readTree(apiDocs);
+        assertTrue(spec.path("paths").has("/employees/{id}"));
+        // The spec is served from wherever the application runs
+        spec.remove("host");
+        Path file = Path.of(System.getProperty("api-docs.file",
+                "target/classes/" + StaticApiDocsConfig.API_DOCS_RESOURCE));
+        Files.createDirectories(file.getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), spec);
+        LOGGER.info("API docs were written to {}", file);
+    }
+}
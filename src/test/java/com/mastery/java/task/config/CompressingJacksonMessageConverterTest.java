@@ -0,0 +1,144 @@
+package com.mastery.java.task.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mastery.java.task.dto.Employee;
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.support.converter.MessageConversionException;
+
+import javax.jms.Message;
+import javax.jms.Session;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Sergey Tsynin
+ */
+@ExtendWith(MockitoExtension.class)
+class CompressingJacksonMessageConverterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompressingJacksonMessageConverterTest.class);
+
+    private CompressingJacksonMessageConverter converter;
+
+    @Mock
+    Session session;
+
+    @BeforeEach
+    void setUp() {
+        converter = new CompressingJacksonMessageConverter(1024, false, 64 * 1024);
+        converter.setTypeIdPropertyName("_type");
+    }
+
+    @Test
+    void shouldSendSmallMessageAsText() throws Exception {
+        LOGGER.debug("shouldSendSmallMessageAsText()");
+
+        // given
+        when(session.createTextMessage(anyString()))
+                .thenAnswer(i -> textMessage(i.getArgument(0)));
+        Employee employee = getEmployee(1);
+
+        // when
+        Message message = converter.toMessage(employee, session);
+
+        // then
+        assertTrue(message instanceof ActiveMQTextMessage);
+        assertNull(message.getStringProperty(CompressingJacksonMessageConverter.COMPRESSION_PROPERTY));
+        assertEquals(employee, converter.fromMessage(message));
+    }
+
+    @Test
+    void shouldCompressBigMessage() throws Exception {
+        LOGGER.debug("shouldCompressBigMessage()");
+
+        // given
+        when(session.createBytesMessage()).thenReturn(new ActiveMQBytesMessage());
+        Employee[] employees = new Employee[100];
+        for (int i = 0; i < employees.length; i++) {
+            employees[i] = getEmployee(i);
+        }
+
+        // when
+        ActiveMQBytesMessage message = (ActiveMQBytesMessage) converter.toMessage(employees, session);
+        message.reset();
+
+        // then
+        assertEquals("gzip", message.getStringProperty(CompressingJacksonMessageConverter.COMPRESSION_PROPERTY));
+        assertTrue(message.getBodyLength() * 5 < new ObjectMapper().writeValueAsBytes(employees).length);
+        assertArrayEquals(employees, (Employee[]) converter.fromMessage(message));
+    }
+
+    @Test
+    void shouldRejectMessageDecompressedBeyondMaxSize() throws Exception {
+        LOGGER.debug("shouldRejectMessageDecompressedBeyondMaxSize()");
+
+        // given
+        when(session.createBytesMessage()).thenReturn(new ActiveMQBytesMessage());
+        Employee[] employees = new Employee[1000];
+        for (int i = 0; i < employees.length; i++) {
+            employees[i] = getEmployee(i);
+        }
+        ActiveMQBytesMessage message = (ActiveMQBytesMessage) converter.toMessage(employees, session);
+        message.reset();
+
+        // when
+        MessageConversionException exception = assertThrows(MessageConversionException.class,
+                () -> converter.fromMessage(message));
+
+        // then
+        assertTrue(message.getBodyLength() < 64 * 1024);
+        assertTrue(exception.getCause().getMessage().startsWith("Message body is larger than 65536 bytes"));
+    }
+
+    @Test
+    void shouldSendSmileAsBytesAndStillReadJson() throws Exception {
+        LOGGER.debug("shouldSendSmileAsBytesAndStillReadJson()");
+
+        // given
+        CompressingJacksonMessageConverter smileConverter = new CompressingJacksonMessageConverter(1024, true, 64 * 1024);
+        smileConverter.setTypeIdPropertyName("_type");
+        when(session.createBytesMessage()).thenReturn(new ActiveMQBytesMessage());
+        when(session.createTextMessage(anyString())).thenAnswer(i -> textMessage(i.getArgument(0)));
+        Employee employee = getEmployee(1);
+
+        // when
+        ActiveMQBytesMessage smileMessage = (ActiveMQBytesMessage) smileConverter.toMessage(employee, session);
+        smileMessage.reset();
+        Message jsonMessage = converter.toMessage(employee, session);
+
+        // then
+        assertEquals("smile", smileMessage.getStringProperty(CompressingJacksonMessageConverter.FORMAT_PROPERTY));
+        assertNull(smileMessage.getStringProperty(CompressingJacksonMessageConverter.COMPRESSION_PROPERTY));
+        assertEquals(employee, smileConverter.fromMessage(smileMessage));
+        assertEquals(employee, smileConverter.fromMessage(jsonMessage));
+    }
+
+    private static ActiveMQTextMessage textMessage(String text) throws Exception {
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setText(text);
+        return message;
+    }
+
+    private Employee getEmployee(int id) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        employee.setFirstName("Peter" + id);
+        employee.setLastName("Pan");
+        employee.setJobTitle("Engineer");
+        return employee;
+    }
+}
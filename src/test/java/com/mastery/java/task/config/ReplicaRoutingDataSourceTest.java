@@ -0,0 +1,221 @@
+package com.mastery.java.task.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes between a primary and two replicas, each an embedded H2 database that knows its own name.
+ *
+ * @author Sergey Tsynin
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSourceTest.class);
+
+    private SwitchableDataSource secondReplica;
+
+    @BeforeEach
+    void setUp() {
+        secondReplica = new SwitchableDataSource(node("replica-2"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void shouldReadFromReplicasInTurnAndWriteToPrimary() {
+        LOGGER.debug("shouldReadFromReplicasInTurnAndWriteToPrimary()");
+
+        // given
+        ReplicaRoutingDataSource routing = routing(false);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        // when
+        List<String> reads = List.of(
+                nodeOf(dataSource, true), nodeOf(dataSource, true), nodeOf(dataSource, true));
+        String write = nodeOf(dataSource, false);
+        String withoutTransaction = new JdbcTemplate(dataSource).queryForObject("SELECT NAME FROM NODE", String.class);
+
+        // then
+        assertEquals(List.of("replica-1", "replica-2", "replica-1"), reads);
+        assertEquals("primary", write);
+        assertEquals("primary", withoutTransaction);
+    }
+
+    @Test
+    void shouldSkipReplicaThatIsDownUntilItIsBack() {
+        LOGGER.debug("shouldSkipReplicaThatIsDownUntilItIsBack()");
+
+        // given
+        ReplicaRoutingDataSource routing = routing(false);
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        secondReplica.down = true;
+
+        // when
+        List<String> readsWhileDown = List.of(
+                nodeOf(dataSource, true), nodeOf(dataSource, true), nodeOf(dataSource, true));
+        int healthyWhileDown = routing.getHealthyReplicas();
+        secondReplica.down = false;
+        routing.checkReplicas(1);
+
+        // then
+        assertEquals(List.of("replica-1", "replica-1", "replica-1"), readsWhileDown);
+        assertEquals(1, healthyWhileDown);
+        assertEquals(2, routing.getHealthyReplicas());
+        assertEquals("replica-2", nodeOf(dataSource, true));
+    }
+
+    @Test
+    void shouldReadFromPrimaryWithoutHealthyReplicas() {
+        LOGGER.debug("shouldReadFromPrimaryWithoutHealthyReplicas()");
+
+        // given
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(node("primary"), List.of(secondReplica), false));
+        secondReplica.down = true;
+
+        // when
+        String read = nodeOf(dataSource, true);
+
+        // then
+        assertEquals("primary", read);
+    }
+
+    @Test
+    void shouldReadYourWritesForTheRestOfRequest() {
+        LOGGER.debug("shouldReadYourWritesForTheRestOfRequest()");
+
+        // given
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing(true));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // when
+        String readBeforeWrite = nodeOf(dataSource, true);
+        nodeOf(dataSource, false);
+        String readAfterWrite = nodeOf(dataSource, true);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String readInNextRequest = nodeOf(dataSource, true);
+
+        // then
+        assertEquals("replica-1", readBeforeWrite);
+        assertEquals("primary", readAfterWrite);
+        assertEquals("replica-2", readInNextRequest);
+    }
+
+    @Test
+    void shouldReadFromOneReplicaForTheWholeRequest() {
+        LOGGER.debug("shouldReadFromOneReplicaForTheWholeRequest()");
+
+        // given
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing(false));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        // when
+        List<String> readsInRequest = List.of(
+                nodeOf(dataSource, true), nodeOf(dataSource, true), nodeOf(dataSource, true));
+        secondReplica.down = true;
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        String readInNextRequest = nodeOf(dataSource, true);
+
+        // then
+        assertEquals(List.of("replica-1", "replica-1", "replica-1"), readsInRequest);
+        assertEquals("replica-1", readInNextRequest);
+    }
+
+    @Test
+    void shouldRouteConnectionsWithCredentials() throws SQLException {
+        LOGGER.debug("shouldRouteConnectionsWithCredentials()");
+
+        // given
+        ReplicaRoutingDataSource routing = routing(false);
+
+        // when
+        String write = nodeOf(routing.getConnection("", ""));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        String read;
+        try {
+            read = nodeOf(routing.getConnection("", ""));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+
+        // then
+        assertEquals("primary", write);
+        assertEquals("replica-1", read);
+    }
+
+    private ReplicaRoutingDataSource routing(boolean readYourWrites) {
+        return new ReplicaRoutingDataSource(node("primary"), List.of(node("replica-1"), secondReplica), readYourWrites);
+    }
+
+    private static String nodeOf(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("SELECT NAME FROM NODE", String.class));
+    }
+
+    private static String nodeOf(Connection connection) throws SQLException {
+        try (connection) {
+            return new JdbcTemplate(new SingleConnectionDataSource(connection, true))
+                    .queryForObject("SELECT NAME FROM NODE", String.class);
+        }
+    }
+
+    private static DataSource node(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS NODE (NAME VARCHAR(32))");
+        jdbcTemplate.update("DELETE FROM NODE");
+        jdbcTemplate.update("INSERT INTO NODE (NAME) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static final class SwitchableDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+
+        private SwitchableDataSource(DataSource dataSource) {
+            super(dataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection(username, password);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.mastery.java.task.config;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the prod configuration, lazy initialization included, on the test database and broker.
+ *
+ * @author Sergey Tsynin
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"prod", "test"})
+class StartupConfigTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupConfigTest.class);
+
+    @Autowired
+    ConfigurableApplicationContext context;
+
+    @Autowired
+    TestRestTemplate restTemplate;
+
+    @Value("${spring.main.lazy-initialization}")
+    boolean lazyInitialization;
+
+    @Test
+    void shouldStartControllersAndListenersEagerlyWithLazyInitialization() {
+        LOGGER.debug("shouldStartControllersAndListenersEagerlyWithLazyInitialization()");
+
+        // given
+        JmsListenerEndpointRegistry listeners = context.getBean(JmsListenerEndpointRegistry.class);
+
+        // when
+        ResponseEntity<String> response = restTemplate.getForEntity("/employees/count", String.class);
+
+        // then
+        assertTrue(lazyInitialization);
+        assertTrue(context.getBeanFactory().containsSingleton("employeeController"));
+        assertFalse(listeners.getListenerContainers().isEmpty());
+        assertTrue(listeners.getListenerContainers().stream().allMatch(MessageListenerContainer::isRunning));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+}
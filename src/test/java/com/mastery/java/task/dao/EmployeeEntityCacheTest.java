@@ -0,0 +1,135 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.config.HibernateCacheConfig;
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.Gender;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes past Hibernate commit for real, so the second-level cache sees them as the application does.
+ *
+ * @author Sergey Tsynin
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({EmployeeJdbcRepository.class, EmployeeEntityCache.class, HibernateCacheConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmployeeEntityCacheTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeEntityCacheTest.class);
+
+    @Autowired
+    EmployeeJdbcRepository jdbcRepository;
+
+    @Autowired
+    EmployeeJpaRepository jpaRepository;
+
+    @Autowired
+    EmployeeEntityCache entityCache;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldReadPatchedEmployeeAfterPatch() {
+        LOGGER.debug("shouldReadPatchedEmployeeAfterPatch()");
+
+        // given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer employeeId = transactionTemplate.execute(status -> jdbcRepository.createEmployees(
+                List.of(getEmployee("Arthur", "Dent"))).get(0));
+        assertEquals("Sandwich maker", findByName(transactionTemplate, "Arthur", "Dent").get(0).getJobTitle());
+        assertTrue(entityManagerFactory.getCache().contains(Employee.class, employeeId));
+        Employee patch = new Employee();
+        patch.setEmployeeId(employeeId);
+        patch.setJobTitle("Captain");
+
+        // when
+        Employee readWhileWriting = transactionTemplate.execute(status -> {
+            jdbcRepository.patchEmployee(patch);
+            entityCache.lock(List.of(employeeId));
+            return findOutside(employeeId);
+        });
+
+        // then
+        assertEquals("Sandwich maker", readWhileWriting.getJobTitle());
+        assertEquals("Captain", findByName(transactionTemplate, "Arthur", "Dent").get(0).getJobTitle());
+        assertEquals("Captain", transactionTemplate.execute(status ->
+                jpaRepository.findById(employeeId).orElseThrow().getJobTitle()));
+    }
+
+    @Test
+    void shouldNotFindDeletedEmployeeAfterDelete() {
+        LOGGER.debug("shouldNotFindDeletedEmployeeAfterDelete()");
+
+        // given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer employeeId = transactionTemplate.execute(status -> jdbcRepository.createEmployees(
+                List.of(getEmployee("Ford", "Prefect"))).get(0));
+        assertEquals(1, findByName(transactionTemplate, "Ford", "Prefect").size());
+        assertTrue(entityManagerFactory.getCache().contains(Employee.class, employeeId));
+
+        // when
+        Employee readWhileWriting = transactionTemplate.execute(status -> {
+            jdbcRepository.deleteEmployee(employeeId);
+            entityCache.lock(List.of(employeeId));
+            return findOutside(employeeId);
+        });
+
+        // then
+        assertEquals("Ford", readWhileWriting.getFirstName());
+        assertEquals(List.of(), findByName(transactionTemplate, "Ford", "Prefect"));
+        assertEquals(Boolean.FALSE, transactionTemplate.execute(status -> jpaRepository.existsById(employeeId)));
+    }
+
+    private List<Employee> findByName(TransactionTemplate transactionTemplate, String firstName, String lastName) {
+        return transactionTemplate.execute(status ->
+                jpaRepository.findByFirstNameContainsAndLastNameContains(firstName, lastName));
+    }
+
+    /**
+     * Read the employee in a session of its own, as a concurrent reader does before the write commits.
+     */
+    private Employee findOutside(Integer employeeId) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            return entityManager.find(Employee.class, employeeId);
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    private static Employee getEmployee(String firstName, String lastName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        employee.setDepartmentId(42);
+        employee.setJobTitle("Sandwich maker");
+        employee.setGender(Gender.MALE);
+        employee.setDateOfBirth(LocalDate.of(1978, 3, 8));
+        return employee;
+    }
+}
@@ -0,0 +1,69 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.Gender;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Sergey Tsynin
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmployeeJdbcRepository.class)
+class EmployeeJdbcRepositoryTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeJdbcRepositoryTest.class);
+
+    @Autowired
+    EmployeeJdbcRepository repository;
+
+    @Test
+    void shouldMoveChangeNumberWithEveryWrite() {
+        LOGGER.debug("shouldMoveChangeNumberWithEveryWrite()");
+
+        // given
+        long initial = repository.findChangeNumber();
+
+        // when
+        Integer employeeId = repository.createEmployees(List.of(getEmployee())).get(0);
+        long afterCreate = repository.findChangeNumber();
+        Employee patch = new Employee();
+        patch.setEmployeeId(employeeId);
+        patch.setJobTitle("Captain");
+        repository.patchEmployee(patch);
+        long afterPatch = repository.findChangeNumber();
+        repository.deleteEmployee(employeeId);
+        long afterDelete = repository.findChangeNumber();
+
+        // then
+        assertTrue(initial < afterCreate);
+        assertTrue(afterCreate < afterPatch);
+        assertTrue(afterPatch < afterDelete);
+        assertEquals(afterDelete, repository.findChangeNumber());
+    }
+
+    private static Employee getEmployee() {
+        Employee employee = new Employee();
+        employee.setFirstName("Arthur");
+        employee.setLastName("Dent");
+        employee.setDepartmentId(42);
+        employee.setJobTitle("Sandwich maker");
+        employee.setGender(Gender.MALE);
+        employee.setDateOfBirth(LocalDate.of(1978, 3, 8));
+        return employee;
+    }
+}
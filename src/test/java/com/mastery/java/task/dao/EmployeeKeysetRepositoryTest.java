@@ -0,0 +1,67 @@
+package com.mastery.java.task.dao;
+
+import com.mastery.java.task.dto.Employee;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Sergey Tsynin
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class EmployeeKeysetRepositoryTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeKeysetRepositoryTest.class);
+
+    @Autowired
+    EmployeeJpaRepository repository;
+
+    @Test
+    void shouldReturnEmployeesPageAfterKeyset() {
+        LOGGER.debug("shouldReturnEmployeesPageAfterKeyset()");
+
+        // given
+        EmployeeSort sort = EmployeeSort.parse("lastName");
+
+        // when
+        List<Employee> firstPage = repository.findPage("", "", sort, null, null, 2);
+        Employee last = firstPage.get(firstPage.size() - 1);
+        List<Employee> secondPage = repository.findPage("", "", sort, last.getLastName(), last.getEmployeeId(), 2);
+
+        // then
+        assertEquals(2, firstPage.size());
+        assertEquals("Beeblebrox", firstPage.get(0).getLastName());
+        assertEquals("Pupkin", last.getLastName());
+        assertEquals(1, secondPage.size());
+        assertEquals("the Deer", secondPage.get(0).getLastName());
+    }
+
+    @Test
+    void shouldReturnEmployeesPageAfterKeysetInDescendingOrder() {
+        LOGGER.debug("shouldReturnEmployeesPageAfterKeysetInDescendingOrder()");
+
+        // given
+        EmployeeSort sort = EmployeeSort.parse("firstName,desc");
+
+        // when
+        List<Employee> firstPage = repository.findPage("", "", sort, null, null, 1);
+        Employee last = firstPage.get(0);
+        List<Employee> secondPage = repository.findPage("", "", sort, last.getFirstName(), last.getEmployeeId(), 5);
+
+        // then
+        assertEquals("Zaphod", last.getFirstName());
+        assertEquals(2, secondPage.size());
+        assertEquals("Vasily", secondPage.get(0).getFirstName());
+        assertEquals("Rudolph", secondPage.get(1).getFirstName());
+    }
+}
@@ -0,0 +1,35 @@
+package com.mastery.java.task.dao;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves the change number of the EMPLOYEE table in H2, as the PL/pgSQL trigger of V6 does in PostgreSQL.
+ *
+ * @author Sergey Tsynin
+ */
+public class H2EmployeeChangesTrigger implements Trigger {
+
+    @Override
+    public void init(Connection connection, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) {
+    }
+
+    @Override
+    public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE EMPLOYEE_CHANGES SET CHANGE_NUMBER = CHANGE_NUMBER + 1");
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+}
@@ -0,0 +1,67 @@
+package com.mastery.java.task.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Sergey Tsynin
+ */
+class CountingAsyncAppenderTest {
+
+    @Test
+    void shouldCountDroppedEventsPerLevel() throws Exception {
+        // given
+        LoggerContext context = new LoggerContext();
+        CountDownLatch firstEventTaken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AppenderBase<ILoggingEvent> slowAppender = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                firstEventTaken.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        slowAppender.setContext(context);
+        slowAppender.start();
+
+        CountingAsyncAppender appender = new CountingAsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(2);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(true);
+        appender.addAppender(slowAppender);
+        appender.start();
+
+        Logger logger = context.getLogger("test");
+        logger.addAppender(appender);
+
+        // when
+        logger.info("taken by the worker");
+        assertTrue(firstEventTaken.await(5, TimeUnit.SECONDS));
+        logger.info("queued");
+        logger.info("queued");
+        logger.info("dropped");
+        logger.error("dropped");
+        release.countDown();
+        appender.stop();
+
+        // then
+        assertEquals(1, appender.getDropped(Level.INFO));
+        assertEquals(1, appender.getDropped(Level.ERROR));
+        assertEquals(0, appender.getDropped(Level.DEBUG));
+    }
+}
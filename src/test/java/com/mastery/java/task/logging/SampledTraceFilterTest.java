@@ -0,0 +1,59 @@
+package com.mastery.java.task.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Sergey Tsynin
+ */
+class SampledTraceFilterTest {
+
+    private final SampledTraceFilter filter = new SampledTraceFilter();
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    void shouldFollowRequestSamplingDecision() {
+        // when
+        MDC.put(SampledTraceFilter.MDC_KEY, "false");
+
+        // then
+        assertEquals(FilterReply.DENY, decide(Level.INFO, " IN: getEmployeeById() - [{}]"));
+        assertEquals(FilterReply.DENY, decide(Level.INFO, "OUT: getEmployeeById() - [{}]"));
+        assertEquals(FilterReply.NEUTRAL, decide(Level.WARN, " IN: getEmployeeById() - [{}]"));
+        assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, "Employees name index was built"));
+
+        // when
+        MDC.put(SampledTraceFilter.MDC_KEY, "true");
+
+        // then
+        assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, " IN: getEmployeeById() - [{}]"));
+    }
+
+    @Test
+    void shouldSampleLinesOutsideOfRequests() {
+        // when
+        filter.setSampleRate(0);
+
+        // then
+        assertEquals(FilterReply.DENY, decide(Level.INFO, " IN: receiveEmployee() - [{}]"));
+
+        // when
+        filter.setSampleRate(1);
+
+        // then
+        assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, " IN: receiveEmployee() - [{}]"));
+    }
+
+    private FilterReply decide(Level level, String format) {
+        return filter.decide(null, null, level, format, null, null);
+    }
+}
@@ -2,29 +2,54 @@ package com.mastery.java.task.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.EmployeeAggregates;
+import com.mastery.java.task.dto.EmployeePage;
+import com.mastery.java.task.dto.EmployeeProjection;
 import com.mastery.java.task.dto.Gender;
+import com.mastery.java.task.rest.excepton_handling.VersionConflictException;
 import com.mastery.java.task.service.EmployeeService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
+import java.time.Year;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -46,6 +71,14 @@ class EmployeeControllerUnitTest {
     @MockBean
     private EmployeeService employeeService;
 
+    @Autowired
+    private EmployeeController employeeController;
+
+    @AfterEach
+    void restoreChunkSize() {
+        ReflectionTestUtils.setField(employeeController, "batchChunkSize", 1000);
+    }
+
     @Test
     void shouldReturnEmployeeById() throws Exception {
         LOGGER.debug("shouldReturnEmployeeById()");
@@ -68,6 +101,133 @@ class EmployeeControllerUnitTest {
         verify(employeeService).getEmployeeById(employeeToInteractionId);
     }
 
+    @Test
+    void shouldTagEmployeeWithItsVersion() throws Exception {
+        LOGGER.debug("shouldTagEmployeeWithItsVersion()");
+
+        // given
+        Employee employee = getFakeEmployee(42);
+        employee.setVersion(3);
+        when(employeeService.getEmployeeById(42)).thenReturn(employee);
+
+        // when
+        mockMvc.perform(get(URI_ID, 42)
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        verify(employeeService, never()).getEmployeeVersion(any());
+    }
+
+    @Test
+    void shouldReturnNotModifiedEmployeeWithoutReadingIt() throws Exception {
+        LOGGER.debug("shouldReturnNotModifiedEmployeeWithoutReadingIt()");
+
+        // given
+        when(employeeService.getEmployeeVersion(42)).thenReturn(3);
+
+        // when
+        mockMvc.perform(get(URI_ID, 42)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3\"")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getEmployeeById(any());
+    }
+
+    @Test
+    void shouldTagEmployeeWithItsOwnVersionIfStoredVersionIsNewer() throws Exception {
+        LOGGER.debug("shouldTagEmployeeWithItsOwnVersionIfStoredVersionIsNewer()");
+
+        // given
+        Employee employee = getFakeEmployee(42);
+        employee.setVersion(3);
+        when(employeeService.getEmployeeVersion(42)).thenReturn(4);
+        when(employeeService.getEmployeeById(42)).thenReturn(employee);
+
+        // when
+        mockMvc.perform(get(URI_ID, 42)
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3\"")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""));
+    }
+
+    @Test
+    void shouldReturnFieldsOfEmployeeIfStoredVersionIsNewerThanRead() throws Exception {
+        LOGGER.debug("shouldReturnFieldsOfEmployeeIfStoredVersionIsNewerThanRead()");
+
+        // given
+        when(employeeService.getEmployeeVersion(42)).thenReturn(4);
+        when(employeeService.getEmployeeFieldsById(42, "firstName"))
+                .thenReturn(new EmployeeProjection(Map.of("firstName", "FirstName42"), 3));
+
+        // when
+        mockMvc.perform(get(URI_ID, 42)
+                        .param("fields", "firstName")
+                        .header(HttpHeaders.IF_NONE_MATCH, "W/\"3\"")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(content().json("{\"firstName\":\"FirstName42\"}", true));
+    }
+
+    @Test
+    void shouldReturnOnlyRequestedFieldsOfEmployee() throws Exception {
+        LOGGER.debug("shouldReturnOnlyRequestedFieldsOfEmployee()");
+
+        // given
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("employeeId", 42);
+        fields.put("firstName", "FirstName42");
+        when(employeeService.getEmployeeFieldsById(42, "employeeId,firstName"))
+                .thenReturn(new EmployeeProjection(fields, 3));
+
+        // when
+        mockMvc.perform(get(URI_ID, 42)
+                        .param("fields", "employeeId,firstName")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"3\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andExpect(content().json("{\"employeeId\":42,\"firstName\":\"FirstName42\"}", true));
+        verify(employeeService, never()).getEmployeeById(any());
+    }
+
+    @Test
+    void shouldReturnRequestedFieldsOfEmployeesPage() throws Exception {
+        LOGGER.debug("shouldReturnRequestedFieldsOfEmployeesPage()");
+
+        // given
+        List<EmployeeProjection> employeesList = List.of(
+                new EmployeeProjection(Map.of("lastName", "LastName3"), null),
+                new EmployeeProjection(Map.of("lastName", "LastName4"), null));
+        when(employeeService.getEmployeeFieldsByName("", "LastName", "lastName", null, null, 20))
+                .thenReturn(new EmployeePage<>(employeesList, "nextCursor"));
+
+        // when
+        mockMvc.perform(get(URI)
+                        .param("lastName", "LastName")
+                        .param("fields", "lastName")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "nextCursor"))
+                .andExpect(content().json("[{\"lastName\":\"LastName3\"},{\"lastName\":\"LastName4\"}]", true));
+        verify(employeeService, never()).getEmployeesByName(any(), any(), any(), any(), ArgumentMatchers.anyInt());
+    }
+
     @Test
     void shouldReturnEmployeeByName() throws Exception {
         LOGGER.debug("shouldReturnEmployeeByName()");
@@ -76,7 +236,8 @@ class EmployeeControllerUnitTest {
         String firstName = "FirstName7";
         String lastName = "LastName7";
         List<Employee> employeesList = Collections.singletonList(getFakeEmployee(7));
-        when(employeeService.getEmployeesByName(firstName, lastName)).thenReturn(employeesList);
+        when(employeeService.getEmployeesByName(firstName, lastName, null, null, 20))
+                .thenReturn(new EmployeePage<>(employeesList, null));
 
         // when
         MockHttpServletResponse servletResponse = mockMvc.perform(get(URI)
@@ -90,7 +251,74 @@ class EmployeeControllerUnitTest {
                 .andReturn().getResponse();
         assertNotNull(servletResponse);
         assertEquals(employeesList, extractEmployeeList(servletResponse));
-        verify(employeeService).getEmployeesByName(firstName, lastName);
+        assertNull(servletResponse.getHeader("X-Next-Cursor"));
+        verify(employeeService).getEmployeesByName(firstName, lastName, null, null, 20);
+    }
+
+    @Test
+    void shouldReturnNextCursorWithEmployeesPage() throws Exception {
+        LOGGER.debug("shouldReturnNextCursorWithEmployeesPage()");
+
+        // given
+        List<Employee> employeesList = List.of(getFakeEmployee(3), getFakeEmployee(4));
+        when(employeeService.getEmployeesByName("", "", "lastName,desc", "cursor", 2))
+                .thenReturn(new EmployeePage<>(employeesList, "nextCursor"));
+
+        // when
+        MockHttpServletResponse servletResponse = mockMvc.perform(get(URI)
+                        .param("sort", "lastName,desc")
+                        .param("cursor", "cursor")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "nextCursor"))
+                .andReturn().getResponse();
+        assertEquals(employeesList, extractEmployeeList(servletResponse));
+        verify(employeeService).getEmployeesByName("", "", "lastName,desc", "cursor", 2);
+    }
+
+    @Test
+    void shouldReturnErrorWithTooBigPageSize() throws Exception {
+        LOGGER.debug("shouldReturnErrorWithTooBigPageSize()");
+
+        // when
+        mockMvc.perform(get(URI)
+                        .param("limit", "100000")
+                        .accept(MediaType.ALL)
+
+                ) // then
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldExportEmployeesAsNdjson() throws Exception {
+        LOGGER.debug("shouldExportEmployeesAsNdjson()");
+
+        // given
+        List<Employee> employeesList = List.of(getFakeEmployee(1), getFakeEmployee(2));
+        doAnswer(invocation -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            employeesList.forEach(consumer);
+            return null;
+        }).when(employeeService).exportEmployees(any());
+
+        // when
+        MvcResult mvcResult = mockMvc.perform(get(URI + "/export")
+                        .accept("application/x-ndjson")
+
+                ) // then
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(3600000L, mvcResult.getRequest().getAsyncContext().getTimeout());
+        String[] lines = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(employeesList.get(0), objectMapper.readValue(lines[0], Employee.class));
+        assertEquals(employeesList.get(1), objectMapper.readValue(lines[1], Employee.class));
+        verify(employeeService).exportEmployees(any());
     }
 
     @Test
@@ -121,6 +349,126 @@ class EmployeeControllerUnitTest {
         verify(employeeService).createEmployee(newEmployee);
     }
 
+    @Test
+    void shouldCreateEmployeeFromSmileAndReturnSmile() throws Exception {
+        LOGGER.debug("shouldCreateEmployeeFromSmileAndReturnSmile()");
+
+        // given
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        Employee newEmployee = getFakeEmployee(128);
+        Employee returnedEmployee = getFakeEmployee(128);
+        newEmployee.setEmployeeId(null);
+        when(employeeService.createEmployee(newEmployee)).thenReturn(returnedEmployee);
+
+        // when
+        MockHttpServletResponse servletResponse = mockMvc.perform(post(URI)
+                        .contentType(EmployeeController.SMILE)
+                        .content(smileMapper.writeValueAsBytes(newEmployee))
+                        .accept(EmployeeController.SMILE)
+
+                ) // then
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(EmployeeController.SMILE))
+                .andReturn().getResponse();
+        assertEquals(returnedEmployee, smileMapper.readValue(servletResponse.getContentAsByteArray(), Employee.class));
+        verify(employeeService).createEmployee(newEmployee);
+    }
+
+    @Test
+    public void shouldCreateEmployeesBatch() throws Exception {
+        LOGGER.debug("shouldCreateEmployeesBatch()");
+
+        // given
+        List<Employee> newEmployees = List.of(getFakeEmployee(null), getFakeEmployee(null));
+        String json = objectMapper.writeValueAsString(newEmployees);
+        when(employeeService.createEmployees(newEmployees))
+                .thenReturn(List.of(getFakeEmployee(5), getFakeEmployee(6)));
+
+        // when
+        MockHttpServletResponse servletResponse = mockMvc.perform(post(URI + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json)
+                        .characterEncoding("utf-8")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        assertEquals(List.of(5, 6), extractIntegerList(servletResponse));
+        verify(employeeService).createEmployees(newEmployees);
+    }
+
+    @Test
+    public void shouldCreateEmployeesFromNdjsonStream() throws Exception {
+        LOGGER.debug("shouldCreateEmployeesFromNdjsonStream()");
+
+        // given
+        ReflectionTestUtils.setField(employeeController, "batchChunkSize", 2);
+        String json = objectMapper.writeValueAsString(getFakeEmployee(null));
+        String ndjson = json + "\n" + json + "\n" + json + "\n";
+        AtomicInteger nextId = new AtomicInteger(10);
+        when(employeeService.createEmployees(anyList())).thenAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            employees.forEach(employee -> employee.setEmployeeId(nextId.getAndIncrement()));
+            return employees;
+        });
+
+        // when
+        MockHttpServletResponse servletResponse = mockMvc.perform(post(URI + "/batch")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson)
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        assertEquals(List.of(10, 11, 12), extractIntegerList(servletResponse));
+        verify(employeeService, times(2)).createEmployees(anyList());
+    }
+
+    @Test
+    public void shouldReturnErrorWithMalformedLineInNdjsonStream() throws Exception {
+        LOGGER.debug("shouldReturnErrorWithMalformedLineInNdjsonStream()");
+
+        // given
+        ReflectionTestUtils.setField(employeeController, "batchChunkSize", 1);
+        String ndjson = objectMapper.writeValueAsString(getFakeEmployee(null)) + "\n{\"firstName\": \n";
+        when(employeeService.createEmployees(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        String message = mockMvc.perform(post(URI + "/batch")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson)
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isBadRequest())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(message.contains("1 employee(s) before it saved"), message);
+        verify(employeeService, times(1)).createEmployees(anyList());
+    }
+
+    @Test
+    public void shouldReturnErrorWithInvalidEmployeeInBatch() throws Exception {
+        LOGGER.debug("shouldReturnErrorWithInvalidEmployeeInBatch()");
+
+        // given
+        Employee tooYoung = getFakeEmployee(null);
+        tooYoung.setDateOfBirth(LocalDate.now());
+        String json = objectMapper.writeValueAsString(List.of(getFakeEmployee(null), tooYoung));
+
+        // when
+        mockMvc.perform(post(URI + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json)
+                        .characterEncoding("utf-8")
+                        .accept(MediaType.ALL)
+
+                ) // then
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).createEmployees(ArgumentMatchers.<List<Employee>>any());
+    }
+
     @Test
     public void shouldUpdateEmployee() throws Exception {
         LOGGER.debug("shouldUpdateEmployee()");
@@ -169,6 +517,81 @@ class EmployeeControllerUnitTest {
                 .andExpect(content().string("Id mismatch"));
     }
 
+    @Test
+    void shouldPatchEmployee() throws Exception {
+        LOGGER.info("shouldPatchEmployee()");
+
+        // given
+        Employee patch = new Employee();
+        patch.setEmployeeId(256);
+        patch.setJobTitle("Pilot");
+        patch.setVersion(3);
+
+        // when
+        mockMvc.perform(patch(URI_ID, 256)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jobTitle\":\"Pilot\",\"version\":3}")
+                        .characterEncoding("utf-8")
+
+                ) // then
+                .andExpect(status().isNoContent());
+        verify(employeeService).patchEmployee(patch);
+    }
+
+    @Test
+    void shouldReturnConflictIfPatchEmployeeWithOldVersion() throws Exception {
+        LOGGER.info("shouldReturnConflictIfPatchEmployeeWithOldVersion()");
+
+        // given
+        doThrow(new VersionConflictException("Employee with id 256 was changed by someone else!"))
+                .when(employeeService).patchEmployee(any());
+
+        // when
+        mockMvc.perform(patch(URI_ID, 256)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jobTitle\":\"Pilot\",\"version\":1}")
+                        .characterEncoding("utf-8")
+                        .accept(MediaType.ALL)
+
+                ) // then
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Employee with id 256 was changed by someone else!"));
+    }
+
+    @Test
+    void shouldReturnBadRequestIfPatchSetsFieldToNull() throws Exception {
+        LOGGER.info("shouldReturnBadRequestIfPatchSetsFieldToNull()");
+
+        // when
+        mockMvc.perform(patch(URI_ID, 256)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jobTitle\":null}")
+                        .characterEncoding("utf-8")
+                        .accept(MediaType.ALL)
+
+                ) // then
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Employee jobTitle cannot be set to null"));
+        verify(employeeService, never()).patchEmployee(any());
+    }
+
+    @Test
+    void shouldReturnBadRequestIfPatchHasInvalidField() throws Exception {
+        LOGGER.info("shouldReturnBadRequestIfPatchHasInvalidField()");
+
+        // when
+        mockMvc.perform(patch(URI_ID, 256)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jobTitle\":\"" + "A".repeat(129) + "\"}")
+                        .characterEncoding("utf-8")
+                        .accept(MediaType.ALL)
+
+                ) // then
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Validation error."));
+        verify(employeeService, never()).patchEmployee(any());
+    }
+
     @Test
     void shouldDeleteEmployee() throws Exception {
         LOGGER.info("shouldDeleteEmployee()");
@@ -184,6 +607,45 @@ class EmployeeControllerUnitTest {
         verify(employeeService).deleteEmployee(employeeToInteractionId);
     }
 
+    @Test
+    void shouldDeleteEmployeesByIdsOrDepartment() throws Exception {
+        LOGGER.info("shouldDeleteEmployeesByIdsOrDepartment()");
+
+        // given
+        when(employeeService.deleteEmployees(List.of(1, 2, 3))).thenReturn(List.of(1, 3));
+        when(employeeService.deleteEmployeesByDepartment(42)).thenReturn(List.of(5));
+
+        // when
+        mockMvc.perform(delete(URI).param("ids", "1,2,3")
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(content().json("[1,3]"));
+        mockMvc.perform(delete(URI).param("departmentId", "42")
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(content().json("[5]"));
+    }
+
+    @Test
+    void shouldReturnErrorIfBulkDeleteWithoutCriteria() throws Exception {
+        LOGGER.info("shouldReturnErrorIfBulkDeleteWithoutCriteria()");
+
+        // when
+        mockMvc.perform(delete(URI).param("ids", "1").param("departmentId", "42")
+
+                ) // then
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Either ids or departmentId must be given"));
+        mockMvc.perform(delete(URI)
+
+                ) // then
+                .andExpect(status().isBadRequest());
+        verify(employeeService, never()).deleteEmployees(any());
+        verify(employeeService, never()).deleteEmployeesByDepartment(any());
+    }
+
     @Test
     void shouldReturnEmployeesCount() throws Exception {
         LOGGER.info("shouldReturnEmployeesCount()");
@@ -206,12 +668,62 @@ class EmployeeControllerUnitTest {
         verify(employeeService).getEmployeesCount();
     }
 
+    @Test
+    void shouldReturnEmployeeAggregates() throws Exception {
+        LOGGER.info("shouldReturnEmployeeAggregates()");
+
+        // given
+        EmployeeAggregates aggregates = new EmployeeAggregates(3,
+                Map.of("42", 2L, EmployeeAggregates.UNKNOWN, 1L),
+                Map.of("MALE", 3L),
+                Map.of("25-34", 3L));
+        when(employeeService.getEmployeesTag()).thenReturn("7");
+        when(employeeService.getEmployeeAggregates()).thenReturn(aggregates);
+
+        // when
+        mockMvc.perform(get(URI + "/aggregates")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"total\":3,"
+                        + "\"byDepartment\":{\"42\":2,\"unknown\":1},"
+                        + "\"byGender\":{\"MALE\":3},"
+                        + "\"byAgeBand\":{\"25-34\":3}}"));
+        verify(employeeService).getEmployeeAggregates();
+    }
+
+    @Test
+    void shouldNotReturnEmployeeAggregatesIfNotModified() throws Exception {
+        LOGGER.info("shouldNotReturnEmployeeAggregatesIfNotModified()");
+
+        // given
+        when(employeeService.getEmployeesTag()).thenReturn("7");
+
+        // when
+        mockMvc.perform(get(URI + "/aggregates")
+                        .accept(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7-" + Year.now() + "\"")
+
+                ) // then
+                .andExpect(status().isNotModified());
+        verify(employeeService, never()).getEmployeeAggregates();
+    }
+
     private Integer extractInteger(MockHttpServletResponse servletResponse) throws Exception {
         return objectMapper.readValue(
                 servletResponse.getContentAsString(),
                 Integer.class);
     }
 
+    private List<Integer> extractIntegerList(MockHttpServletResponse servletResponse) throws Exception {
+        return objectMapper.readValue(
+                servletResponse.getContentAsString(),
+                new TypeReference<>() {
+                });
+    }
+
     private Employee extractEmployee(MockHttpServletResponse servletResponse) throws Exception {
         return objectMapper.readValue(
                 servletResponse.getContentAsString(),
@@ -225,6 +737,26 @@ class EmployeeControllerUnitTest {
                 });
     }
 
+    @Test
+    void shouldReturnNotModifiedEmployeesPageWithoutSearching() throws Exception {
+        LOGGER.debug("shouldReturnNotModifiedEmployeesPageWithoutSearching()");
+
+        // given
+        when(employeeService.getEmployeesTag()).thenReturn("7");
+
+        // when
+        mockMvc.perform(get(URI)
+                        .param("lastName", "LastName7")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"7\"")
+                        .accept(MediaType.APPLICATION_JSON)
+
+                ) // then
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"7\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        verify(employeeService, never()).getEmployeesByName(any(), any(), any(), any(), ArgumentMatchers.anyInt());
+    }
+
     private Employee getFakeEmployee(Integer id) {
         Employee employee = new Employee();
         employee.setEmployeeId(id);
@@ -0,0 +1,99 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dao.EmployeeJpaRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Sergey Tsynin
+ */
+@ExtendWith(MockitoExtension.class)
+class EmployeeCounterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeCounterTest.class);
+
+    @InjectMocks
+    EmployeeCounter employeeCounter;
+
+    @Mock
+    EmployeeJpaRepository jpaRepository;
+
+    @Test
+    void shouldCountInDatabaseOnlyOnce() {
+        LOGGER.debug("shouldCountInDatabaseOnlyOnce()");
+
+        // given
+        when(jpaRepository.count()).thenReturn(5L);
+
+        // when
+        employeeCounter.get();
+        long count = employeeCounter.get();
+
+        // then
+        assertEquals(5, count);
+        verify(jpaRepository, times(1)).count();
+    }
+
+    @Test
+    void shouldFollowCommittedWrites() {
+        LOGGER.debug("shouldFollowCommittedWrites()");
+
+        // given
+        when(jpaRepository.count()).thenReturn(5L);
+        employeeCounter.reconcile();
+
+        // when
+        employeeCounter.track(() -> 3, inserted -> inserted);
+        employeeCounter.track(() -> 1, deleted -> -deleted);
+        assertThrows(IllegalStateException.class, () -> employeeCounter.track(() -> {
+            throw new IllegalStateException("rolled back");
+        }, inserted -> 1));
+
+        // then
+        assertEquals(7, employeeCounter.get());
+    }
+
+    @Test
+    void shouldReportCorrectedDriftAsChange() {
+        LOGGER.debug("shouldReportCorrectedDriftAsChange()");
+
+        // given
+        when(jpaRepository.count()).thenReturn(5L).thenReturn(8L);
+        employeeCounter.reconcile();
+
+        // when
+        employeeCounter.reconcile();
+
+        // then
+        assertEquals(8, employeeCounter.get());
+    }
+
+    @Test
+    void shouldSkipRecountIfEmployeesWereWrittenMeanwhile() {
+        LOGGER.debug("shouldSkipRecountIfEmployeesWereWrittenMeanwhile()");
+
+        // given
+        when(jpaRepository.count()).thenReturn(5L).thenAnswer(i -> {
+            employeeCounter.track(() -> 1, inserted -> inserted);
+            return 100L;
+        });
+        employeeCounter.reconcile();
+
+        // when
+        employeeCounter.reconcile();
+
+        // then
+        assertEquals(6, employeeCounter.get());
+    }
+}
@@ -0,0 +1,208 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Sergey Tsynin
+ */
+class EmployeeJournalTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeJournalTest.class);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void shouldReadAppendedEmployeesAfterReopening() throws Exception {
+        LOGGER.debug("shouldReadAppendedEmployeesAfterReopening()");
+
+        // given
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1024 * 1024)) {
+            journal.append(List.of(employee("Rudolph"), employee("Peter")), false);
+            journal.append(List.of(employee("Wendy")), true);
+        }
+
+        // when
+        List<Employee> employees = new ArrayList<>();
+        long end;
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1024 * 1024)) {
+            end = journal.read(journal.getCheckpoint(), 10, employees);
+            assertEquals(journal.getEnd(), end);
+        }
+
+        // then
+        assertEquals(List.of("Rudolph", "Peter", "Wendy"), firstNames(employees));
+    }
+
+    @Test
+    void shouldCutTornRecordOffOnOpen() throws Exception {
+        LOGGER.debug("shouldCutTornRecordOffOnOpen()");
+
+        // given
+        long end;
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1024 * 1024)) {
+            end = journal.append(List.of(employee("Rudolph")), true);
+        }
+        Files.write(segments().get(0), new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // when
+        List<Employee> employees = new ArrayList<>();
+        long endAfterOpen;
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1024 * 1024)) {
+            endAfterOpen = journal.getEnd();
+            journal.append(List.of(employee("Peter")), true);
+            journal.read(0, 10, employees);
+        }
+
+        // then
+        assertEquals(end, endAfterOpen);
+        assertEquals(List.of("Rudolph", "Peter"), firstNames(employees));
+    }
+
+    @Test
+    void shouldDeleteSegmentsBelowCheckpoint() throws Exception {
+        LOGGER.debug("shouldDeleteSegmentsBelowCheckpoint()");
+
+        // given
+        long committed;
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1)) {
+            journal.append(List.of(employee("Rudolph")), true);
+            committed = journal.append(List.of(employee("Peter")), true);
+            journal.append(List.of(employee("Wendy")), true);
+
+            // when
+            journal.commit(committed);
+        }
+        List<Employee> employees = new ArrayList<>();
+        long checkpoint;
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1)) {
+            checkpoint = journal.getCheckpoint();
+            journal.read(checkpoint, 10, employees);
+        }
+
+        // then
+        assertEquals(committed, checkpoint);
+        assertEquals(List.of("Wendy"), firstNames(employees));
+        assertEquals(2, segments().size());
+    }
+
+    @Test
+    void shouldSaveAgainFromFirstSegmentWithEmptyCheckpoint() throws Exception {
+        LOGGER.debug("shouldSaveAgainFromFirstSegmentWithEmptyCheckpoint()");
+
+        // given
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1)) {
+            journal.commit(journal.append(List.of(employee("Rudolph")), true));
+            journal.append(List.of(employee("Peter")), true);
+        }
+        Files.write(directory.resolve("checkpoint"), new byte[0]);
+
+        // when
+        List<Employee> employees = new ArrayList<>();
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1)) {
+            journal.read(journal.getCheckpoint(), 10, employees);
+        }
+
+        // then
+        assertEquals(List.of("Peter"), firstNames(employees));
+    }
+
+    @Test
+    void shouldCutAppendOffIfSyncFails() throws Exception {
+        LOGGER.debug("shouldCutAppendOffIfSyncFails()");
+
+        // given
+        AtomicInteger failingSyncs = new AtomicInteger();
+        long end;
+        try (EmployeeJournal journal = new FailingJournal(directory, failingSyncs)) {
+            end = journal.append(List.of(employee("Rudolph")), true);
+            failingSyncs.set(1);
+
+            // when
+            assertThrows(IOException.class, () -> journal.append(List.of(employee("Peter")), true));
+            assertEquals(end, journal.getEnd());
+            journal.append(List.of(employee("Wendy")), true);
+        }
+
+        // then
+        List<Employee> employees = new ArrayList<>();
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1024 * 1024)) {
+            journal.read(journal.getCheckpoint(), 10, employees);
+        }
+        assertEquals(List.of("Rudolph", "Wendy"), firstNames(employees));
+    }
+
+    @Test
+    void shouldRefuseAppendsIfFailedAppendCannotBeCutOff() throws Exception {
+        LOGGER.debug("shouldRefuseAppendsIfFailedAppendCannotBeCutOff()");
+
+        // given
+        AtomicInteger failingSyncs = new AtomicInteger(2);
+        try (EmployeeJournal journal = new FailingJournal(directory, failingSyncs)) {
+            assertThrows(IOException.class, () -> journal.append(List.of(employee("Rudolph")), true));
+
+            // when
+            Exception exception = assertThrows(IOException.class,
+                    () -> journal.append(List.of(employee("Peter")), true));
+
+            // then
+            assertEquals("Journal refuses appends after a failed one, it must be opened again", exception.getMessage());
+        }
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".journal")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static List<String> firstNames(List<Employee> employees) {
+        return employees.stream().map(Employee::getFirstName).collect(Collectors.toList());
+    }
+
+    private static Employee employee(String firstName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName("Pan");
+        return employee;
+    }
+
+    /**
+     * Journal whose next fsyncs fail.
+     */
+    private static final class FailingJournal extends EmployeeJournal {
+
+        private final AtomicInteger failingSyncs;
+
+        private FailingJournal(Path directory, AtomicInteger failingSyncs) throws IOException {
+            super(directory, 1024 * 1024);
+            this.failingSyncs = failingSyncs;
+        }
+
+        @Override
+        void force(FileChannel channel) throws IOException {
+            if (failingSyncs.getAndUpdate(syncs -> Math.max(syncs - 1, 0)) > 0) {
+                throw new IOException("Input/output error");
+            }
+            super.force(channel);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Sergey Tsynin
+ */
+class EmployeeNameIndexTest {
+
+    private final EmployeeNameIndex index = new EmployeeNameIndex(true);
+
+    @Test
+    void shouldFindEmployeesBySubstrings() {
+        // given
+        index.put(getEmployee(1, "Vasily", "Pupkin"));
+        index.put(getEmployee(2, "Rudolph", "the Deer"));
+        index.put(getEmployee(3, "Zaphod", "Beeblebrox"));
+
+        // then
+        assertEquals(List.of(2), sorted(index.search("dolp", "", 10)));
+        assertEquals(List.of(3), sorted(index.search("", "bro", 10)));
+        assertEquals(List.of(1, 3), sorted(index.search("a", "", 10)));
+        assertEquals(List.of(1, 2, 3), sorted(index.search("", "", 10)));
+        assertTrue(index.search("Vasily", "Deer", 10).isEmpty());
+        assertTrue(index.search("vasily", "", 10).isEmpty());
+    }
+
+    @Test
+    void shouldFollowUpdatesAndRemovals() {
+        // given
+        index.put(getEmployee(1, "Vasily", "Pupkin"));
+
+        // when
+        index.put(getEmployee(1, "Vasilisa", "Prekrasnaya"));
+
+        // then
+        assertTrue(index.search("", "Pupkin", 10).isEmpty());
+        assertEquals(List.of(1), sorted(index.search("Vasilisa", "Prekras", 10)));
+
+        // when
+        index.update(1, null, "Premudraya");
+
+        // then
+        assertTrue(index.search("", "Prekras", 10).isEmpty());
+        assertEquals(List.of(1), sorted(index.search("Vasilisa", "Premudr", 10)));
+
+        // when
+        index.remove(1);
+
+        // then
+        assertTrue(index.search("Vas", "", 10).isEmpty());
+    }
+
+    @Test
+    void shouldGiveUpWhenTooManyEmployeesMatch() {
+        // given
+        for (int i = 1; i <= 5; i++) {
+            index.put(getEmployee(i, "FirstName" + i, "LastName" + i));
+        }
+
+        // then
+        assertNull(index.search("First", "", 4));
+        assertEquals(5, index.search("First", "", 5).size());
+    }
+
+    @Test
+    void shouldNotIndexAnythingWhenDisabled() {
+        // given
+        EmployeeNameIndex disabledIndex = new EmployeeNameIndex(false);
+
+        // when
+        disabledIndex.put(getEmployee(1, "Vasily", "Pupkin"));
+        disabledIndex.build();
+
+        // then
+        assertTrue(disabledIndex.search("Vas", "", 10).isEmpty());
+        assertFalse(disabledIndex.isReady());
+    }
+
+    private List<Integer> sorted(Collection<Integer> ids) {
+        List<Integer> result = new ArrayList<>(ids);
+        result.sort(Integer::compareTo);
+        return result;
+    }
+
+    private Employee getEmployee(Integer id, String firstName, String lastName) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        employee.setFirstName(firstName);
+        employee.setLastName(lastName);
+        return employee;
+    }
+}
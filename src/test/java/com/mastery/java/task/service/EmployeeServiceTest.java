@@ -1,25 +1,66 @@
 package com.mastery.java.task.service;
 
+import com.mastery.java.task.dao.EmployeeEntityCache;
+import com.mastery.java.task.dao.EmployeeField;
+import com.mastery.java.task.dao.EmployeeJdbcRepository;
 import com.mastery.java.task.dao.EmployeeJpaRepository;
+import com.mastery.java.task.dao.EmployeeSort;
 import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.dto.EmployeeAggregates;
+import com.mastery.java.task.dto.EmployeeHeadcount;
+import com.mastery.java.task.dto.EmployeePage;
+import com.mastery.java.task.dto.EmployeeProjection;
 import com.mastery.java.task.dto.Gender;
+import com.mastery.java.task.rest.excepton_handling.InvalidParameterException;
 import com.mastery.java.task.rest.excepton_handling.ResourceNotFoundException;
+import com.mastery.java.task.rest.excepton_handling.VersionConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
 import java.time.LocalDate;
+import java.time.Year;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.mastery.java.task.config.CacheConfig.EMPLOYEES_CACHE;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,20 +78,48 @@ class EmployeeServiceTest {
     @Mock
     EmployeeJpaRepository jpaRepository;
 
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    EmployeeNameIndex nameIndex;
+
+    @Mock
+    EmployeeJdbcRepository jdbcRepository;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    TransactionTemplate readOnlyTransactionTemplate;
+
+    @Mock
+    EmployeeCounter employeeCounter;
+
+    @Mock
+    EmployeeEntityCache entityCache;
+
+    @Spy
+    SingleFlight singleFlight = new SingleFlight(new SimpleMeterRegistry(), 1000);
+
+    @Spy
+    CacheManager cacheManager = new CaffeineCacheManager(EMPLOYEES_CACHE);
+
     @Test
     void shouldFindById() {
         LOGGER.debug("shouldFindById()");
 
         // given
+        runTransactions();
         Employee fakeEmployee = getFakeEmployee(1);
-        when(jpaRepository.findById(1)).thenReturn(Optional.of(fakeEmployee));
+        when(jpaRepository.findUncachedById(1)).thenReturn(Optional.of(fakeEmployee));
 
         // when
         Employee employee = employeeService.getEmployeeById(1);
 
         // then
         assertEquals(fakeEmployee, employee);
-        verify(jpaRepository).findById(1);
+        verify(jpaRepository).findUncachedById(1);
     }
 
     @Test
@@ -58,13 +127,159 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldReturnExceptionWithUnknownEmployeeId()");
 
         // given
-        when(jpaRepository.findById(99)).thenReturn(Optional.empty());
+        runTransactions();
+        when(jpaRepository.findUncachedById(99)).thenReturn(Optional.empty());
 
         // then
         Exception exception = assertThrows(ResourceNotFoundException.class,
                 () -> employeeService.getEmployeeById(99));
         assertEquals("No employee with id 99 exists!", exception.getMessage());
-        verify(jpaRepository).findById(99);
+        verify(jpaRepository).findUncachedById(99);
+    }
+
+    @Test
+    void shouldReadCachedEmployeeOnceAndReturnCopies() {
+        LOGGER.debug("shouldReadCachedEmployeeOnceAndReturnCopies()");
+
+        // given
+        runTransactions();
+        when(jpaRepository.findUncachedById(1)).thenReturn(Optional.of(getFakeEmployee(1)));
+
+        // when
+        Employee first = employeeService.getEmployeeById(1);
+        first.setFirstName("Changed by the caller");
+        Employee second = employeeService.getEmployeeById(1);
+
+        // then
+        assertEquals(getFakeEmployee(1), second);
+        assertNotSame(first, second);
+        verify(jpaRepository).findUncachedById(1);
+    }
+
+    @Test
+    void shouldNotCacheUnknownEmployee() {
+        LOGGER.debug("shouldNotCacheUnknownEmployee()");
+
+        // given
+        runTransactions();
+        when(jpaRepository.findUncachedById(99)).thenReturn(Optional.empty()).thenReturn(Optional.of(getFakeEmployee(99)));
+
+        // when
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.getEmployeeById(99));
+        Employee employee = employeeService.getEmployeeById(99);
+
+        // then
+        assertEquals(getFakeEmployee(99), employee);
+        verify(jpaRepository, times(2)).findUncachedById(99);
+    }
+
+    @Test
+    void shouldEvictCachedEmployeeOnUpdate() {
+        LOGGER.debug("shouldEvictCachedEmployeeOnUpdate()");
+
+        // given
+        runTransactions();
+        when(jpaRepository.findById(33)).thenReturn(Optional.of(getFakeEmployee(33)));
+        when(jpaRepository.findUncachedById(33)).thenReturn(Optional.of(getFakeEmployee(33)));
+        when(jpaRepository.save(any(Employee.class))).thenAnswer(i -> i.getArguments()[0]);
+        employeeService.getEmployeeById(33);
+        Employee update = getFakeEmployee(33);
+        update.setJobTitle("Pilot");
+
+        // when
+        employeeService.updateEmployee(update);
+        when(jpaRepository.findUncachedById(33)).thenReturn(Optional.of(update));
+        Employee employee = employeeService.getEmployeeById(33);
+
+        // then
+        assertEquals("Pilot", employee.getJobTitle());
+    }
+
+    @Test
+    void shouldEvictCachedEmployeeOnPatch() {
+        LOGGER.debug("shouldEvictCachedEmployeeOnPatch()");
+
+        // given
+        runTransactions();
+        Employee patched = getFakeEmployee(33);
+        patched.setJobTitle("Pilot");
+        when(jpaRepository.findUncachedById(33)).thenReturn(Optional.of(getFakeEmployee(33))).thenReturn(Optional.of(patched));
+        employeeService.getEmployeeById(33);
+        Employee patch = new Employee();
+        patch.setEmployeeId(33);
+        patch.setJobTitle("Pilot");
+        when(jdbcRepository.patchEmployee(patch)).thenReturn(1);
+
+        // when
+        employeeService.patchEmployee(patch);
+        Employee employee = employeeService.getEmployeeById(33);
+
+        // then
+        assertEquals("Pilot", employee.getJobTitle());
+        verify(jpaRepository, times(2)).findUncachedById(33);
+    }
+
+    @Test
+    void shouldEvictCachedEmployeesOnDelete() {
+        LOGGER.debug("shouldEvictCachedEmployeesOnDelete()");
+
+        // given
+        runTransactions();
+        trackWrites();
+        when(jpaRepository.findUncachedById(anyInt())).thenAnswer(i -> Optional.of(getFakeEmployee(i.getArgument(0))));
+        employeeService.getEmployeeById(1);
+        employeeService.getEmployeeById(3);
+        employeeService.getEmployeeById(7);
+        when(jdbcRepository.deleteEmployee(1)).thenReturn(1);
+        when(jdbcRepository.deleteEmployeesByDepartment(42)).thenReturn(List.of(3, 7));
+
+        // when
+        employeeService.deleteEmployee(1);
+        employeeService.deleteEmployeesByDepartment(42);
+        when(jpaRepository.findUncachedById(anyInt())).thenReturn(Optional.empty());
+
+        // then
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.getEmployeeById(1));
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.getEmployeeById(3));
+        assertThrows(ResourceNotFoundException.class, () -> employeeService.getEmployeeById(7));
+    }
+
+    @Test
+    void shouldNotKeepEmployeeLoadedBeforePatchEvictedIt() throws Exception {
+        LOGGER.debug("shouldNotKeepEmployeeLoadedBeforePatchEvictedIt()");
+
+        // given
+        runTransactions();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch patched = new CountDownLatch(1);
+        Employee stale = getFakeEmployee(33);
+        Employee fresh = getFakeEmployee(33);
+        fresh.setJobTitle("Pilot");
+        when(jpaRepository.findUncachedById(33)).thenAnswer(i -> {
+            loading.countDown();
+            patched.await(1, TimeUnit.SECONDS);
+            // wait for the patch thread to get to the eviction
+            Thread.sleep(100);
+            return Optional.of(stale);
+        }).thenReturn(Optional.of(fresh));
+        Employee patch = new Employee();
+        patch.setEmployeeId(33);
+        patch.setJobTitle("Pilot");
+        when(jdbcRepository.patchEmployee(patch)).thenAnswer(i -> {
+            patched.countDown();
+            return 1;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // when
+        Future<Employee> read = executor.submit(() -> employeeService.getEmployeeById(33));
+        loading.await(1, TimeUnit.SECONDS);
+        executor.submit(() -> employeeService.patchEmployee(patch)).get(2, TimeUnit.SECONDS);
+        read.get(2, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // then
+        assertEquals("Pilot", employeeService.getEmployeeById(33).getJobTitle());
     }
 
     @Test
@@ -72,16 +287,86 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldFindByName()");
 
         // given
+        runReadOnlyTransactions();
         List<Employee> base = new ArrayList<>();
         base.add(getFakeEmployee(1));
-        when(jpaRepository.findByFirstNameContainsAndLastNameContains("Ali", "Baba")).thenReturn(base);
+        when(jpaRepository.findPage("Ali", "Baba", EmployeeSort.DEFAULT, null, null, 21)).thenReturn(base);
 
         // when
-        List<Employee> employees = employeeService.getEmployeesByName("Ali", "Baba");
+        EmployeePage<Employee> page = employeeService.getEmployeesByName("Ali", "Baba", null, null, 20);
 
         // then
-        assertEquals(base, employees);
-        verify(jpaRepository).findByFirstNameContainsAndLastNameContains("Ali", "Baba");
+        assertEquals(base, page.getEmployees());
+        assertNull(page.getNext());
+        verify(jpaRepository).findPage("Ali", "Baba", EmployeeSort.DEFAULT, null, null, 21);
+    }
+
+    @Test
+    void shouldFindByNameThroughIndex() {
+        LOGGER.debug("shouldFindByNameThroughIndex()");
+
+        // given
+        runReadOnlyTransactions();
+        List<Employee> base = List.of(getFakeEmployee(7));
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.search(eq("Name7"), eq(""), anyInt())).thenReturn(List.of(7));
+        when(jpaRepository.findPageByIds(List.of(7), EmployeeSort.DEFAULT, null, null, 21)).thenReturn(base);
+
+        // when
+        EmployeePage<Employee> page = employeeService.getEmployeesByName("Name7", "", null, null, 20);
+
+        // then
+        assertEquals(base, page.getEmployees());
+        verify(jpaRepository).findPageByIds(List.of(7), EmployeeSort.DEFAULT, null, null, 21);
+        verify(jpaRepository, never()).findPage(any(), any(), any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void shouldFindByNameInDatabaseIfIndexMatchesTooMuch() {
+        LOGGER.debug("shouldFindByNameInDatabaseIfIndexMatchesTooMuch()");
+
+        // given
+        runReadOnlyTransactions();
+        List<Employee> base = List.of(getFakeEmployee(7));
+        when(nameIndex.isReady()).thenReturn(true);
+        when(nameIndex.search(eq("Name"), eq(""), anyInt())).thenReturn(null);
+        when(jpaRepository.findPage("Name", "", EmployeeSort.DEFAULT, null, null, 21)).thenReturn(base);
+
+        // when
+        EmployeePage<Employee> page = employeeService.getEmployeesByName("Name", "", null, null, 20);
+
+        // then
+        assertEquals(base, page.getEmployees());
+        verify(jpaRepository).findPage("Name", "", EmployeeSort.DEFAULT, null, null, 21);
+    }
+
+    @Test
+    void shouldReturnCursorOfNextPageAndFollowIt() {
+        LOGGER.debug("shouldReturnCursorOfNextPageAndFollowIt()");
+
+        // given
+        runReadOnlyTransactions();
+        EmployeeSort sort = EmployeeSort.parse("lastName,desc");
+        List<Employee> firstPage = List.of(getFakeEmployee(3), getFakeEmployee(2), getFakeEmployee(1));
+        when(jpaRepository.findPage("", "", sort, null, null, 3)).thenReturn(firstPage);
+
+        // when
+        EmployeePage<Employee> page = employeeService.getEmployeesByName("", "", "lastName,desc", null, 2);
+
+        // then
+        assertEquals(firstPage.subList(0, 2), page.getEmployees());
+        assertNotNull(page.getNext());
+
+        // given
+        when(jpaRepository.findPage("", "", sort, "LastName2", 2, 3)).thenReturn(List.of(getFakeEmployee(1)));
+
+        // when
+        EmployeePage<Employee> nextPage = employeeService.getEmployeesByName("", "", null, page.getNext(), 2);
+
+        // then
+        assertEquals(List.of(getFakeEmployee(1)), nextPage.getEmployees());
+        assertNull(nextPage.getNext());
+        verify(jpaRepository).findPage("", "", sort, "LastName2", 2, 3);
     }
 
     @Test
@@ -89,13 +374,154 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldReturnExceptionWithUnknownEmployeeName()");
 
         // given
-        when(jpaRepository.findByFirstNameContainsAndLastNameContains("None", "None")).thenReturn(new ArrayList<>());
+        runReadOnlyTransactions();
+        when(jpaRepository.findPage("None", "None", EmployeeSort.DEFAULT, null, null, 21))
+                .thenReturn(new ArrayList<>());
 
         // then
         Exception exception = assertThrows(ResourceNotFoundException.class,
-                () -> employeeService.getEmployeesByName("None", "None"));
+                () -> employeeService.getEmployeesByName("None", "None", null, null, 20));
         assertEquals("Nothing was found for these parameters", exception.getMessage());
-        verify(jpaRepository).findByFirstNameContainsAndLastNameContains("None", "None");
+        verify(jpaRepository).findPage("None", "None", EmployeeSort.DEFAULT, null, null, 21);
+    }
+
+    @Test
+    public void shouldReturnExceptionWithWrongSortOrCursor() {
+        LOGGER.debug("shouldReturnExceptionWithWrongSortOrCursor()");
+
+        // given
+        runReadOnlyTransactions();
+
+        // then
+        assertThrows(InvalidParameterException.class,
+                () -> employeeService.getEmployeesByName("", "", "jobTitle", null, 20));
+        assertThrows(InvalidParameterException.class,
+                () -> employeeService.getEmployeesByName("", "", null, "not a cursor", 20));
+        String cursor = EmployeeCursor.encode(EmployeeSort.DEFAULT, getFakeEmployee(1));
+        assertThrows(InvalidParameterException.class,
+                () -> employeeService.getEmployeesByName("", "", "firstName", cursor, 20));
+    }
+
+    @Test
+    void shouldOpenOneTransactionForConcurrentSearches() throws Exception {
+        LOGGER.debug("shouldOpenOneTransactionForConcurrentSearches()");
+
+        // given
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch queryReleased = new CountDownLatch(1);
+        List<Employee> base = List.of(getFakeEmployee(1));
+        when(readOnlyTransactionTemplate.execute(any())).thenAnswer(i -> {
+            queryStarted.countDown();
+            queryReleased.await(1, TimeUnit.SECONDS);
+            return i.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+        when(jpaRepository.findPage("Ali", "Baba", EmployeeSort.DEFAULT, null, null, 21)).thenReturn(base);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when
+        Future<EmployeePage<Employee>> leader = executor.submit(() ->
+                employeeService.getEmployeesByName("Ali", "Baba", null, null, 20));
+        queryStarted.await(1, TimeUnit.SECONDS);
+        Thread follower = new Thread(() -> employeeService.getEmployeesByName("Ali", "Baba", null, null, 20));
+        follower.start();
+        while (follower.getState() != Thread.State.TIMED_WAITING) {
+            Thread.onSpinWait();
+        }
+        queryReleased.countDown();
+        follower.join(1000);
+        executor.shutdown();
+
+        // then
+        assertEquals(base, leader.get(1, TimeUnit.SECONDS).getEmployees());
+        verify(readOnlyTransactionTemplate).execute(any());
+        verify(jpaRepository).findPage("Ali", "Baba", EmployeeSort.DEFAULT, null, null, 21);
+    }
+
+    @Test
+    void shouldReadVersionFromPrimary() {
+        LOGGER.debug("shouldReadVersionFromPrimary()");
+
+        // given
+        runTransactions();
+        when(jdbcRepository.findVersion(7)).thenReturn(Optional.of(4));
+
+        // when
+        Integer version = employeeService.getEmployeeVersion(7);
+
+        // then
+        assertEquals(4, version);
+        verify(transactionTemplate).execute(any());
+        verify(readOnlyTransactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void shouldFindFieldsByIdWithoutEntity() {
+        LOGGER.debug("shouldFindFieldsByIdWithoutEntity()");
+
+        // given
+        Set<EmployeeField> fields = EnumSet.of(EmployeeField.FIRST_NAME, EmployeeField.LAST_NAME);
+        when(jpaRepository.findFieldsById(7, fields)).thenReturn(Optional.of(
+                tuple(Map.of("firstName", "FirstName7", "lastName", "LastName7", "version", 2))));
+
+        // when
+        EmployeeProjection employee = employeeService.getEmployeeFieldsById(7, "lastName, firstName");
+
+        // then
+        assertEquals(new EmployeeProjection(fields(
+                "firstName", "FirstName7", "lastName", "LastName7"), 2), employee);
+        verify(jpaRepository, never()).findById(any());
+    }
+
+    @Test
+    void shouldReturnCursorOfNextFieldsPage() {
+        LOGGER.debug("shouldReturnCursorOfNextFieldsPage()");
+
+        // given
+        runReadOnlyTransactions();
+        EmployeeSort sort = EmployeeSort.parse("lastName,desc");
+        Set<EmployeeField> fields = EnumSet.of(EmployeeField.FIRST_NAME);
+        when(jpaRepository.findFieldsPage("", "", fields, sort, null, null, 3)).thenReturn(List.of(
+                tuple(Map.of("employeeId", 3, "firstName", "FirstName3", "lastName", "LastName3")),
+                tuple(Map.of("employeeId", 2, "firstName", "FirstName2", "lastName", "LastName2")),
+                tuple(Map.of("employeeId", 1, "firstName", "FirstName1", "lastName", "LastName1"))));
+
+        // when
+        EmployeePage<EmployeeProjection> page =
+                employeeService.getEmployeeFieldsByName("", "", "firstName", "lastName,desc", null, 2);
+
+        // then
+        assertEquals(List.of(new EmployeeProjection(fields("firstName", "FirstName3"), null),
+                new EmployeeProjection(fields("firstName", "FirstName2"), null)), page.getEmployees());
+        assertEquals(EmployeeCursor.encode(sort, getFakeEmployee(2)), page.getNext());
+    }
+
+    @Test
+    public void shouldReturnExceptionWithUnknownField() {
+        LOGGER.debug("shouldReturnExceptionWithUnknownField()");
+
+        Exception exception = assertThrows(InvalidParameterException.class,
+                () -> employeeService.getEmployeeFieldsById(7, "firstName,salary"));
+        assertEquals("Field 'salary' is not supported", exception.getMessage());
+        assertThrows(InvalidParameterException.class,
+                () -> employeeService.getEmployeeFieldsByName("", "", " , ", null, null, 20));
+    }
+
+    @Test
+    void shouldExportAndDetachEmployees() {
+        LOGGER.debug("shouldExportAndDetachEmployees()");
+
+        // given
+        List<Employee> base = List.of(getFakeEmployee(1), getFakeEmployee(2));
+        when(jpaRepository.streamAll()).thenReturn(base.stream());
+        List<Employee> exported = new ArrayList<>();
+
+        // when
+        employeeService.exportEmployees(exported::add);
+
+        // then
+        assertEquals(base, exported);
+        verify(entityManager).detach(base.get(0));
+        verify(entityManager).detach(base.get(1));
     }
 
     @Test
@@ -103,15 +529,86 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldReturnEmployeeIdWithCreate()");
 
         // given
-        Employee fakeEmployee = getFakeEmployee(22);
-        when(jpaRepository.save(fakeEmployee)).thenReturn(fakeEmployee);
+        Employee fakeEmployee = getFakeEmployee(99);
+        Employee savedEmployee = getFakeEmployee(22);
+        trackWrites();
+        when(jpaRepository.save(fakeEmployee)).thenReturn(savedEmployee);
 
         // when
         Employee returnedEmployee = employeeService.createEmployee(fakeEmployee);
 
         // then
-        assertEquals(fakeEmployee, returnedEmployee);
+        assertEquals(savedEmployee, returnedEmployee);
+        assertNull(fakeEmployee.getEmployeeId());
         verify(jpaRepository).save(fakeEmployee);
+        verify(nameIndex).put(savedEmployee);
+        verify(employeeCounter).track(any(), any());
+    }
+
+    @Test
+    void shouldReturnEmployeesWithIdsWithBatchCreateMethod() {
+        LOGGER.debug("shouldReturnEmployeesWithIdsWithBatchCreateMethod()");
+
+        // given
+        ReflectionTestUtils.setField(employeeService, "batchChunkSize", 1000);
+        List<Employee> employees = List.of(getFakeEmployee(null), getFakeEmployee(null));
+        trackWrites();
+        runTransactions();
+        when(jdbcRepository.createEmployees(employees)).thenReturn(List.of(5, 6));
+
+        // when
+        List<Employee> returnedEmployees = employeeService.createEmployees(employees);
+
+        // then
+        assertEquals(5, returnedEmployees.get(0).getEmployeeId());
+        assertEquals(6, returnedEmployees.get(1).getEmployeeId());
+        verify(jdbcRepository).createEmployees(employees);
+        verify(nameIndex).put(employees.get(0));
+        verify(nameIndex).put(employees.get(1));
+    }
+
+    @Test
+    void shouldInsertEmployeesInChunks() {
+        LOGGER.debug("shouldInsertEmployeesInChunks()");
+
+        // given
+        ReflectionTestUtils.setField(employeeService, "batchChunkSize", 2);
+        List<Employee> employees = List.of(getFakeEmployee(null), getFakeEmployee(null), getFakeEmployee(null));
+        trackWrites();
+        runTransactions();
+        when(jdbcRepository.createEmployees(any())).thenReturn(List.of(1, 2), List.of(3));
+
+        // when
+        List<Employee> returnedEmployees = employeeService.createEmployees(employees);
+
+        // then
+        assertEquals(3, returnedEmployees.size());
+        assertEquals(3, returnedEmployees.get(2).getEmployeeId());
+        verify(jdbcRepository, times(2)).createEmployees(any());
+    }
+
+    @Test
+    void shouldInsertEmployeesInAggregateKeyOrder() {
+        LOGGER.debug("shouldInsertEmployeesInAggregateKeyOrder()");
+
+        // given
+        ReflectionTestUtils.setField(employeeService, "batchChunkSize", 1000);
+        Employee second = getFakeEmployee(null);
+        second.setDepartmentId(2);
+        Employee first = getFakeEmployee(null);
+        first.setDepartmentId(1);
+        Employee noDepartment = getFakeEmployee(null);
+        noDepartment.setDepartmentId(null);
+        trackWrites();
+        runTransactions();
+        when(jdbcRepository.createEmployees(List.of(noDepartment, first, second))).thenReturn(List.of(7, 8, 9));
+
+        // when
+        List<Employee> returnedEmployees = employeeService.createEmployees(List.of(second, first, noDepartment));
+
+        // then
+        assertEquals(List.of(9, 8, 7), returnedEmployees.stream().map(Employee::getEmployeeId)
+                .collect(Collectors.toList()));
     }
 
     @Test
@@ -119,6 +616,7 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldReturnEmployeeWithUpdateMethod()");
 
         // given
+        runTransactions();
         Employee employeeToUpdate = getFakeEmployee(33);
         Employee newEmployeeInfo = getFakeEmployee(42);
         newEmployeeInfo.setEmployeeId(33);
@@ -139,6 +637,7 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldReturnExceptionWithUpdateUnknownEmployeeId()");
 
         // given
+        runTransactions();
         Employee fakeEmployee = getFakeEmployee(99);
         when(jpaRepository.findById(99)).thenReturn(Optional.empty());
 
@@ -151,20 +650,79 @@ class EmployeeServiceTest {
         verify(jpaRepository).findById(99);
     }
 
+    @Test
+    void shouldPatchEmployeeWithoutReadingIt() {
+        LOGGER.debug("shouldPatchEmployeeWithoutReadingIt()");
+
+        // given
+        runTransactions();
+        Employee patch = new Employee();
+        patch.setEmployeeId(33);
+        patch.setJobTitle("Pilot");
+        patch.setVersion(2);
+        when(jdbcRepository.patchEmployee(patch)).thenReturn(1);
+
+        // when
+        employeeService.patchEmployee(patch);
+
+        // then
+        verify(jdbcRepository).patchEmployee(patch);
+        verify(jpaRepository, never()).findById(any());
+        verify(nameIndex).update(33, null, null);
+    }
+
+    @Test
+    void shouldReturnConflictIfPatchEmployeeWithOldVersion() {
+        LOGGER.debug("shouldReturnConflictIfPatchEmployeeWithOldVersion()");
+
+        // given
+        runTransactions();
+        Employee patch = new Employee();
+        patch.setEmployeeId(33);
+        patch.setVersion(1);
+        when(jdbcRepository.patchEmployee(patch)).thenReturn(0);
+        when(jpaRepository.existsById(33)).thenReturn(true);
+
+        // then
+        Exception exception = assertThrows(VersionConflictException.class,
+                () -> employeeService.patchEmployee(patch));
+        assertEquals("Employee with id 33 was changed by someone else!", exception.getMessage());
+        verify(nameIndex, never()).update(any(), any(), any());
+    }
+
+    @Test
+    void shouldReturnExceptionIfPatchUnknownEmployee() {
+        LOGGER.debug("shouldReturnExceptionIfPatchUnknownEmployee()");
+
+        // given
+        runTransactions();
+        Employee patch = new Employee();
+        patch.setEmployeeId(99);
+        when(jdbcRepository.patchEmployee(patch)).thenReturn(0);
+
+        // then
+        Exception exception = assertThrows(ResourceNotFoundException.class,
+                () -> employeeService.patchEmployee(patch));
+        assertEquals("No employee with id 99 exists!", exception.getMessage());
+        verify(jpaRepository, never()).existsById(any());
+    }
+
     @Test
     public void shouldDeleteEmployee() {
         LOGGER.debug("shouldDeleteEmployee()");
 
         // given
-        Employee fakeEmployee = getFakeEmployee(1);
-        when(jpaRepository.findById(1)).thenReturn(Optional.of(fakeEmployee));
+        runTransactions();
+        trackWrites();
+        when(jdbcRepository.deleteEmployee(1)).thenReturn(1);
 
         // when
         employeeService.deleteEmployee(1);
 
         // then
-        verify(jpaRepository).findById(1);
-        verify(jpaRepository).delete(fakeEmployee);
+        verify(jdbcRepository).deleteEmployee(1);
+        verify(employeeCounter).track(any(), any());
+        verify(nameIndex).remove(1);
     }
 
     @Test
@@ -172,13 +730,35 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldReturnExceptionIfDeleteEmployeeWithUnknownId()");
 
         // given
-        when(jpaRepository.findById(9)).thenReturn(Optional.empty());
+        runTransactions();
+        trackWrites();
+        when(jdbcRepository.deleteEmployee(9)).thenReturn(0);
 
         // then
         Exception exception = assertThrows(ResourceNotFoundException.class,
                 () -> employeeService.deleteEmployee(9));
         assertEquals("No employee with id 9 exists!", exception.getMessage());
-        verify(jpaRepository).findById(9);
+        verify(jdbcRepository).deleteEmployee(9);
+        verify(nameIndex, never()).remove(any());
+    }
+
+    @Test
+    void shouldDeleteEmployeesOfDepartment() {
+        LOGGER.debug("shouldDeleteEmployeesOfDepartment()");
+
+        // given
+        runTransactions();
+        trackWrites();
+        when(jdbcRepository.deleteEmployeesByDepartment(42)).thenReturn(List.of(3, 7));
+
+        // when
+        List<Integer> deletedIds = employeeService.deleteEmployeesByDepartment(42);
+
+        // then
+        assertEquals(List.of(3, 7), deletedIds);
+        verify(employeeCounter).track(any(), any());
+        verify(nameIndex).remove(3);
+        verify(nameIndex).remove(7);
     }
 
     @Test
@@ -186,14 +766,57 @@ class EmployeeServiceTest {
         LOGGER.debug("shouldReturnEmployeesCount()");
 
         // given
-        when(jpaRepository.count()).thenReturn(42L);
+        when(employeeCounter.get()).thenReturn(42L);
 
         // when
         Integer employeesCount = employeeService.getEmployeesCount();
 
         // then
         assertEquals(42, employeesCount);
-        verify(jpaRepository).count();
+        verify(employeeCounter).get();
+        verify(jpaRepository, never()).count();
+    }
+
+    @Test
+    void shouldSumUpHeadcountsByDepartmentGenderAndAgeBand() {
+        LOGGER.debug("shouldSumUpHeadcountsByDepartmentGenderAndAgeBand()");
+
+        // given
+        ReflectionTestUtils.setField(employeeService, "ageBands", new int[]{18, 25, 35});
+        int year = Year.now().getValue();
+        when(jdbcRepository.findHeadcounts()).thenReturn(List.of(
+                new EmployeeHeadcount(42, Gender.MALE, year - 30, 2),
+                new EmployeeHeadcount(42, Gender.FEMALE, year - 35, 3),
+                new EmployeeHeadcount(7, Gender.FEMALE, year - 20, 1),
+                new EmployeeHeadcount(null, null, null, 4),
+                new EmployeeHeadcount(7, Gender.MALE, year - 10, 5)));
+
+        // when
+        EmployeeAggregates aggregates = employeeService.getEmployeeAggregates();
+
+        // then
+        assertEquals(15, aggregates.getTotal());
+        assertEquals(List.of("7", "42", "unknown"), new ArrayList<>(aggregates.getByDepartment().keySet()));
+        assertEquals(Map.of("7", 6L, "42", 5L, "unknown", 4L), aggregates.getByDepartment());
+        assertEquals(Map.of("MALE", 7L, "FEMALE", 4L, "unknown", 4L), aggregates.getByGender());
+        assertEquals(Map.of("0-17", 5L, "18-24", 1L, "25-34", 2L, "35+", 3L, "unknown", 4L),
+                aggregates.getByAgeBand());
+        verify(jdbcRepository).findHeadcounts();
+        verify(jpaRepository, never()).findAll();
+    }
+
+    private void runTransactions() {
+        when(transactionTemplate.execute(any())).thenAnswer(i ->
+                i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void runReadOnlyTransactions() {
+        when(readOnlyTransactionTemplate.execute(any())).thenAnswer(i ->
+                i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void trackWrites() {
+        when(employeeCounter.track(any(), any())).thenAnswer(i -> i.<Supplier<?>>getArgument(0).get());
     }
 
     private Employee getFakeEmployee(Integer id) {
@@ -207,4 +830,19 @@ class EmployeeServiceTest {
         employee.setDateOfBirth(LocalDate.now());
         return employee;
     }
-}
\ No newline at end of file
+
+    private static Map<String, Object> fields(Object... namesAndValues) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            fields.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return fields;
+    }
+
+    /**
+     * @return tuple answering get by alias from the values.
+     */
+    private static Tuple tuple(Map<String, Object> values) {
+        return mock(Tuple.class, invocation -> values.get((String) invocation.getArgument(0)));
+    }
+}
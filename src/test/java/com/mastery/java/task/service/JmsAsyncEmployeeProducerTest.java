@@ -0,0 +1,167 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.metrics.JmsMetrics;
+import com.mastery.java.task.rest.excepton_handling.QueueFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessagePostProcessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.jms.Message;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.mastery.java.task.config.JmsConfig.EMPLOYEE_QUEUE;
+import static com.mastery.java.task.config.JmsConfig.MESSAGE_GROUP_PROPERTY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Sergey Tsynin
+ */
+@ExtendWith(MockitoExtension.class)
+class JmsAsyncEmployeeProducerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsAsyncEmployeeProducerTest.class);
+
+    private final JmsAsyncEmployeeProducer producer = new JmsAsyncEmployeeProducer(10);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    JmsTemplate jmsTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(producer, "jmsTemplate", jmsTemplate);
+        ReflectionTestUtils.setField(producer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(producer, "batchSize", 2);
+        ReflectionTestUtils.setField(producer, "linger", 10L);
+        ReflectionTestUtils.setField(producer, "maxBlock", 10L);
+        ReflectionTestUtils.setField(producer, "shutdownTimeout", 1000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        producer.destroy();
+    }
+
+    @Test
+    void shouldPackEmployeesIntoOneMessage() throws Exception {
+        LOGGER.debug("shouldPackEmployeesIntoOneMessage()");
+
+        // given
+        Employee first = new Employee();
+        Employee second = new Employee();
+
+        // when
+        CompletableFuture<Void> firstSent = producer.send(first);
+        CompletableFuture<Void> secondSent = producer.send(second);
+        secondSent.get(1, TimeUnit.SECONDS);
+
+        // then
+        assertSame(firstSent, secondSent);
+        verify(jmsTemplate).convertAndSend(EMPLOYEE_QUEUE, new Employee[]{first, second});
+        assertEquals(2, meterRegistry.summary(JmsMetrics.SEND_EMPLOYEES_SUMMARY).totalAmount());
+    }
+
+    @Test
+    void shouldSendAloneEmployeeAfterLinger() throws Exception {
+        LOGGER.debug("shouldSendAloneEmployeeAfterLinger()");
+
+        // given
+        Employee employee = new Employee();
+
+        // when
+        producer.send(employee).get(1, TimeUnit.SECONDS);
+
+        // then
+        verify(jmsTemplate).convertAndSend(EMPLOYEE_QUEUE, employee);
+    }
+
+    @Test
+    void shouldPackEmployeesOfDepartmentIntoItsMessageGroup() throws Exception {
+        LOGGER.debug("shouldPackEmployeesOfDepartmentIntoItsMessageGroup()");
+
+        // given
+        ReflectionTestUtils.setField(producer, "groupByDepartment", true);
+        Employee first = getEmployee("First", 1);
+        Employee other = getEmployee("Other", 2);
+        Employee second = getEmployee("Second", 1);
+
+        // when
+        producer.send(first);
+        producer.send(other);
+        producer.send(second).get(1, TimeUnit.SECONDS);
+
+        // then
+        ArgumentCaptor<MessagePostProcessor> group = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(jmsTemplate).convertAndSend(eq(EMPLOYEE_QUEUE), eq(new Employee[]{first, second}), group.capture());
+        Message message = mock(Message.class);
+        group.getValue().postProcessMessage(message);
+        verify(message).setStringProperty(MESSAGE_GROUP_PROPERTY, "department-1");
+    }
+
+    @Test
+    void shouldFailFutureIfMessageWasNotSent() {
+        LOGGER.debug("shouldFailFutureIfMessageWasNotSent()");
+
+        // given
+        doThrow(new UncategorizedJmsException("broker is down"))
+                .when(jmsTemplate).convertAndSend(eq(EMPLOYEE_QUEUE), any(Object.class));
+
+        // when
+        CompletableFuture<Void> sent = producer.send(new Employee());
+
+        // then
+        assertThrows(ExecutionException.class, () -> sent.get(1, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.counter(JmsMetrics.SEND_FAILED_COUNTER).count());
+    }
+
+    @Test
+    void shouldFailFutureAtOnceIfTooManyEmployeesArePending() {
+        LOGGER.debug("shouldFailFutureAtOnceIfTooManyEmployeesArePending()");
+
+        // given
+        ReflectionTestUtils.setField(producer, "batchSize", 100);
+        ReflectionTestUtils.setField(producer, "linger", 60000L);
+        for (int i = 0; i < 10; i++) {
+            producer.send(new Employee());
+        }
+
+        // when
+        CompletableFuture<Void> sent = producer.send(new Employee());
+
+        // then
+        assertTrue(sent.isCompletedExceptionally());
+        ExecutionException failure = assertThrows(ExecutionException.class, sent::get);
+        assertTrue(failure.getCause() instanceof QueueFullException);
+    }
+
+    private Employee getEmployee(String name, Integer departmentId) {
+        Employee employee = new Employee();
+        employee.setFirstName(name);
+        employee.setDepartmentId(departmentId);
+        return employee;
+    }
+}
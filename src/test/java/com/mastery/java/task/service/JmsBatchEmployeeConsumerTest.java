@@ -0,0 +1,147 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.jms.support.converter.MessageConverter;
+
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Sergey Tsynin
+ */
+@ExtendWith(MockitoExtension.class)
+class JmsBatchEmployeeConsumerTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsBatchEmployeeConsumerTest.class);
+
+    @InjectMocks
+    JmsBatchEmployeeConsumer consumer;
+
+    @Mock
+    MessageConverter messageConverter;
+
+    @Mock
+    EmployeeService employeeService;
+
+    @Mock
+    Validator validator;
+
+    @Mock
+    Session session;
+
+    @Mock
+    MessageProducer deadLetters;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldSaveWholeBatchAndCommitOnce() throws Exception {
+        LOGGER.debug("shouldSaveWholeBatchAndCommitOnce()");
+
+        // given
+        Message first = mock(Message.class);
+        Message second = mock(Message.class);
+        Employee firstEmployee = getEmployee("First");
+        Employee secondEmployee = getEmployee("Second");
+        when(messageConverter.fromMessage(first)).thenReturn(firstEmployee);
+        when(messageConverter.fromMessage(second)).thenReturn(secondEmployee);
+
+        // when
+        consumer.processBatch(session, deadLetters, List.of(first, second));
+
+        // then
+        verify(employeeService).createEmployees(List.of(firstEmployee, secondEmployee));
+        verify(deadLetters, never()).send(any());
+        verify(session).commit();
+    }
+
+    @Test
+    void shouldIsolateBadMessagesOfBatch() throws Exception {
+        LOGGER.debug("shouldIsolateBadMessagesOfBatch()");
+
+        // given
+        Message unreadable = mock(Message.class);
+        Message good = mock(Message.class);
+        Message rejected = mock(Message.class);
+        Employee goodEmployee = getEmployee("Good");
+        Employee rejectedEmployee = getEmployee("Rejected");
+        when(messageConverter.fromMessage(unreadable)).thenThrow(new MessageConversionException("wrong"));
+        when(messageConverter.fromMessage(good)).thenReturn(goodEmployee);
+        when(messageConverter.fromMessage(rejected)).thenReturn(rejectedEmployee);
+        when(employeeService.createEmployees(List.of(goodEmployee, rejectedEmployee)))
+                .thenThrow(new DataIntegrityViolationException("batch"));
+        when(employeeService.createEmployees(List.of(goodEmployee))).thenReturn(List.of(goodEmployee));
+        when(employeeService.createEmployees(List.of(rejectedEmployee)))
+                .thenThrow(new DataIntegrityViolationException("row"));
+
+        // when
+        consumer.processBatch(session, deadLetters, List.of(unreadable, good, rejected));
+
+        // then
+        verify(employeeService).createEmployees(List.of(goodEmployee));
+        verify(deadLetters).send(unreadable);
+        verify(deadLetters).send(rejected);
+        verify(deadLetters, never()).send(good);
+        var order = inOrder(deadLetters, session);
+        order.verify(deadLetters).send(rejected);
+        order.verify(session).commit();
+    }
+
+    @Test
+    void shouldDeadLetterPackedMessageWithInvalidEmployee() throws Exception {
+        LOGGER.debug("shouldDeadLetterPackedMessageWithInvalidEmployee()");
+
+        // given
+        Message packed = mock(Message.class);
+        Message invalid = mock(Message.class);
+        Employee first = getEmployee("First");
+        Employee second = getEmployee("Second");
+        Employee wrong = getEmployee("Wrong");
+        when(messageConverter.fromMessage(packed)).thenReturn(new Employee[]{first, second});
+        when(messageConverter.fromMessage(invalid)).thenReturn(new Employee[]{getEmployee("Valid"), wrong});
+        ConstraintViolation<?> violation = mock(ConstraintViolation.class);
+        doAnswer(i -> i.getArgument(0) == wrong ? Set.of(violation) : Set.of())
+                .when(validator).validate(any(Employee.class));
+
+        // when
+        consumer.processBatch(session, deadLetters, List.of(packed, invalid));
+
+        // then
+        verify(employeeService).createEmployees(List.of(first, second));
+        verify(deadLetters).send(invalid);
+        verify(session).commit();
+    }
+
+    private Employee getEmployee(String name) {
+        Employee employee = new Employee();
+        employee.setFirstName(name);
+        employee.setLastName(name);
+        return employee;
+    }
+}
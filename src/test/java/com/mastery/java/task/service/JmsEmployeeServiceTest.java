@@ -0,0 +1,109 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.metrics.JmsMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.support.converter.MessageConversionException;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.mastery.java.task.config.JmsConfig.EMPLOYEE_QUEUE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * @author Sergey Tsynin
+ */
+@ExtendWith(MockitoExtension.class)
+class JmsEmployeeServiceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsEmployeeServiceTest.class);
+
+    @InjectMocks
+    JmsEmployeeService jmsService;
+
+    @Mock
+    JmsTemplate jmsTemplate;
+
+    @Mock
+    EmployeeService employeeService;
+
+    @Spy
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldTimeSending() {
+        LOGGER.debug("shouldTimeSending()");
+
+        // given
+        Employee employee = new Employee();
+
+        // when
+        jmsService.sendEmployee(employee);
+
+        // then
+        verify(jmsTemplate).convertAndSend(EMPLOYEE_QUEUE, employee);
+        assertEquals(1, meterRegistry.timer(JmsMetrics.SEND_TIMER).count());
+    }
+
+    @Test
+    void shouldRecordLagFromMessageTimestamp() {
+        LOGGER.debug("shouldRecordLagFromMessageTimestamp()");
+
+        // given
+        Employee employee = new Employee();
+
+        // when
+        jmsService.receiveEmployees(MessageBuilder.withPayload(employee).build(), System.currentTimeMillis() - 2000);
+
+        // then
+        verify(employeeService).createEmployee(employee);
+        assertEquals(1, meterRegistry.timer(JmsMetrics.PROCESS_TIMER, "consumer", "single").count());
+        assertTrue(meterRegistry.timer(JmsMetrics.LAG_TIMER).totalTime(TimeUnit.MILLISECONDS) >= 2000);
+    }
+
+    @Test
+    void shouldSaveEmployeesPackedIntoMessageWithOneBatch() {
+        LOGGER.debug("shouldSaveEmployeesPackedIntoMessageWithOneBatch()");
+
+        // given
+        Employee first = new Employee();
+        Employee second = new Employee();
+
+        // when
+        jmsService.receiveEmployees(MessageBuilder.withPayload(new Employee[]{first, second}).build(), 0);
+
+        // then
+        verify(employeeService).createEmployees(List.of(first, second));
+        verify(employeeService, never()).createEmployee(any());
+    }
+
+    @Test
+    void shouldRejectUnknownPayload() {
+        LOGGER.debug("shouldRejectUnknownPayload()");
+
+        // when
+        assertThrows(MessageConversionException.class,
+                () -> jmsService.receiveEmployees(MessageBuilder.withPayload("employee").build(), 0));
+
+        // then
+        verifyNoInteractions(employeeService);
+    }
+}
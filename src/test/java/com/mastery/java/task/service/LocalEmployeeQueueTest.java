@@ -0,0 +1,164 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.dto.Employee;
+import com.mastery.java.task.rest.excepton_handling.QueueFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * @author Sergey Tsynin
+ */
+@ExtendWith(MockitoExtension.class)
+class LocalEmployeeQueueTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LocalEmployeeQueueTest.class);
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    EmployeeService employeeService;
+
+    private LocalEmployeeQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = queue(10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (queue.isRunning()) {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void shouldSaveQueuedEmployee() throws Exception {
+        LOGGER.debug("shouldSaveQueuedEmployee()");
+
+        // given
+        queue.start();
+
+        // when
+        queue.send(employee("Rudolph"));
+
+        // then
+        verify(employeeService, timeout(1000)).createEmployees(List.of(employee("Rudolph")));
+        queue.stop();
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1024 * 1024)) {
+            assertEquals(journal.getEnd(), journal.getCheckpoint());
+        }
+    }
+
+    @Test
+    void shouldSaveJournaledEmployeesOnStart() throws Exception {
+        LOGGER.debug("shouldSaveJournaledEmployeesOnStart()");
+
+        // given
+        try (EmployeeJournal journal = new EmployeeJournal(directory, 1024 * 1024)) {
+            journal.append(List.of(employee("Rudolph"), employee("Peter")), true);
+        }
+
+        // when
+        queue.start();
+
+        // then
+        verify(employeeService).createEmployees(List.of(employee("Rudolph"), employee("Peter")));
+    }
+
+    @Test
+    void shouldRetryEmployeesUntilDatabaseTakesThem() {
+        LOGGER.debug("shouldRetryEmployeesUntilDatabaseTakesThem()");
+
+        // given
+        doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .doReturn(new ArrayList<Employee>())
+                .when(employeeService).createEmployees(anyList());
+        queue.start();
+
+        // when
+        queue.send(employee("Rudolph"));
+
+        // then
+        verify(employeeService, timeout(1000).times(2)).createEmployees(List.of(employee("Rudolph")));
+    }
+
+    @Test
+    void shouldRejectEmployeesWhileCapacityIsTakenByUnsaved() {
+        LOGGER.debug("shouldRejectEmployeesWhileCapacityIsTakenByUnsaved()");
+
+        // given
+        queue = queue(1);
+        ReflectionTestUtils.setField(queue, "recoveryInterval", 10_000L);
+        doThrow(new CannotGetJdbcConnectionException("Connection refused"))
+                .when(employeeService).createEmployees(anyList());
+        queue.start();
+        queue.send(employee("Rudolph"));
+
+        // when
+        QueueFullException exception = assertThrows(QueueFullException.class,
+                () -> queue.send(employee("Peter")));
+
+        // then
+        assertEquals("Employee queue is full, try again later", exception.getMessage());
+        verify(employeeService, timeout(1000)).createEmployees(List.of(employee("Rudolph")));
+        verify(employeeService, never()).createEmployees(List.of(employee("Peter")));
+    }
+
+    @Test
+    void shouldRejectEmployeesBeforeStart() {
+        LOGGER.debug("shouldRejectEmployeesBeforeStart()");
+
+        // when
+        assertThrows(QueueFullException.class, () -> queue.send(employee("Rudolph")));
+
+        // then
+        verify(employeeService, times(0)).createEmployees(anyList());
+    }
+
+    private LocalEmployeeQueue queue(int capacity) {
+        LocalEmployeeQueue localQueue = new LocalEmployeeQueue(capacity);
+        ReflectionTestUtils.setField(localQueue, "employeeService", employeeService);
+        ReflectionTestUtils.setField(localQueue, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(localQueue, "journalDirectory", directory.toString());
+        ReflectionTestUtils.setField(localQueue, "segmentSize", 1L);
+        ReflectionTestUtils.setField(localQueue, "fsync", true);
+        ReflectionTestUtils.setField(localQueue, "batchSize", 100);
+        ReflectionTestUtils.setField(localQueue, "enqueueTimeout", 200L);
+        ReflectionTestUtils.setField(localQueue, "recoveryInterval", 10L);
+        ReflectionTestUtils.setField(localQueue, "shutdownTimeout", 1000L);
+        return localQueue;
+    }
+
+    private static Employee employee(String firstName) {
+        Employee employee = new Employee();
+        employee.setFirstName(firstName);
+        employee.setLastName("Pan");
+        return employee;
+    }
+}
@@ -0,0 +1,158 @@
+package com.mastery.java.task.service;
+
+import com.mastery.java.task.rest.excepton_handling.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Sergey Tsynin
+ */
+class SingleFlightTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SingleFlightTest.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+    private final CountDownLatch queryStarted = new CountDownLatch(1);
+
+    private final CountDownLatch queryReleased = new CountDownLatch(1);
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void shouldShareResultOfRunningQuery() throws Exception {
+        LOGGER.debug("shouldShareResultOfRunningQuery()");
+
+        // given
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 5000);
+        Future<String> leader = callers.submit(() -> singleFlight.execute("query", 1, this::slowQuery));
+        queryStarted.await();
+
+        // when
+        Future<String> first = callers.submit(() -> singleFlight.execute("query", 1, this::slowQuery));
+        Future<String> second = callers.submit(() -> singleFlight.execute("query", 1, this::slowQuery));
+        awaitFollowers(singleFlight, 2);
+        queryReleased.countDown();
+
+        // then
+        assertSame(leader.get(), first.get());
+        assertSame(leader.get(), second.get());
+        assertEquals(1, queries.get());
+        assertEquals(1, count(SingleFlight.LEADER));
+        assertEquals(2, count(SingleFlight.FOLLOWER));
+    }
+
+    @Test
+    void shouldShareExceptionOfRunningQuery() throws Exception {
+        LOGGER.debug("shouldShareExceptionOfRunningQuery()");
+
+        // given
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 5000);
+        Future<String> leader = callers.submit(() -> singleFlight.execute("query", 1, () -> {
+            slowQuery();
+            throw new ResourceNotFoundException("No employee with id 1 exists!");
+        }));
+        queryStarted.await();
+
+        // when
+        Future<String> follower = callers.submit(() -> singleFlight.execute("query", 1, this::slowQuery));
+        awaitFollowers(singleFlight, 1);
+        queryReleased.countDown();
+
+        // then
+        ExecutionException leaderException = assertThrows(ExecutionException.class, leader::get);
+        ExecutionException followerException = assertThrows(ExecutionException.class, follower::get);
+        assertSame(leaderException.getCause(), followerException.getCause());
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void shouldRunQueryAgainAfterTimeout() throws Exception {
+        LOGGER.debug("shouldRunQueryAgainAfterTimeout()");
+
+        // given
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 10);
+        callers.submit(() -> singleFlight.execute("query", 1, this::slowQuery));
+        queryStarted.await();
+
+        // when
+        String result = singleFlight.execute("query", 1, () -> "fresh");
+
+        // then
+        assertEquals("fresh", result);
+        assertEquals(1, count(SingleFlight.TIMEOUT));
+        queryReleased.countDown();
+    }
+
+    @Test
+    void shouldNotShareQueriesWithDifferentKeys() {
+        LOGGER.debug("shouldNotShareQueriesWithDifferentKeys()");
+
+        // given
+        SingleFlight singleFlight = new SingleFlight(meterRegistry, 5000);
+
+        // when
+        String first = singleFlight.execute("query", 1, () -> "first");
+        String second = singleFlight.execute("query", 2, () -> "second");
+        String again = singleFlight.execute("query", 1, () -> "again");
+
+        // then
+        assertEquals("first", first);
+        assertEquals("second", second);
+        assertEquals("again", again);
+        assertEquals(3, count(SingleFlight.LEADER));
+    }
+
+    private String slowQuery() {
+        queries.incrementAndGet();
+        queryStarted.countDown();
+        try {
+            queryReleased.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "result";
+    }
+
+    private void awaitFollowers(SingleFlight singleFlight, int followers) {
+        while (inFlightWaiters(singleFlight) < followers) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private int inFlightWaiters(SingleFlight singleFlight) {
+        var inFlight = (Map<Object, CompletableFuture<?>>) ReflectionTestUtils.getField(singleFlight, "inFlight");
+        return inFlight.values().stream().mapToInt(CompletableFuture::getNumberOfDependents).sum();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.counter(SingleFlight.CALLS_COUNTER, "query", "query", "outcome", outcome).count();
+    }
+}